@@ -0,0 +1,76 @@
+package com.se310.ledger.benchmark;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.LedgerException;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.TransactionResult;
+import com.se310.ledger.services.BlockchainRepositoryImpl;
+import com.se310.ledger.services.MerkleHashGenerator;
+import com.se310.ledger.services.TransactionProcessor;
+import com.se310.ledger.services.TransactionValidatorImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark comparing per-call submission with batch submission of the same transactions
+ * Scores are transactions per millisecond
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchIngestBenchmark {
+
+    private static final int ACCOUNT_COUNT = 1000;
+    private static final int BATCH_SIZE = 1000;
+
+    private TransactionProcessor processor;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Block genesisBlock = new Block(1, "");
+        genesisBlock.addAccount("master", new Account("master", Integer.MAX_VALUE));
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            String address = "account-" + i;
+            genesisBlock.addAccount(address, new Account(address, 0));
+        }
+
+        processor = new TransactionProcessor(new TransactionValidatorImpl(), new BlockchainRepositoryImpl(),
+                new MerkleHashGenerator(), "benchmark", genesisBlock);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void perCall() throws LedgerException {
+        for (Transaction transaction : nextBatch()) {
+            processor.processTransaction(transaction);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<TransactionResult> batch() {
+        return processor.processTransactions(nextBatch());
+    }
+
+    private List<Transaction> nextBatch() {
+        Block block = processor.getUncommittedBlock();
+        List<Transaction> transactions = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            long id = nextId++;
+            transactions.add(new Transaction(Long.toString(id), 0, 10, "benchmark",
+                    block.getAccount("master"), block.getAccount("account-" + (id % ACCOUNT_COUNT))));
+        }
+        return transactions;
+    }
+}
@@ -0,0 +1,62 @@
+package com.se310.ledger.benchmark;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.BlockSealingPolicy;
+import com.se310.ledger.LedgerException;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.services.BlockchainRepositoryImpl;
+import com.se310.ledger.services.MerkleHashGenerator;
+import com.se310.ledger.services.TransactionProcessor;
+import com.se310.ledger.services.TransactionValidatorImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for transaction ingest including block commit at varying account counts
+ * Commit cost should depend on the accounts touched by a block, not on the total account count,
+ * larger blocks amortize hashing and commit over more transactions
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockCommitBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int accountCount;
+
+    @Param({"10", "1000"})
+    private int blockSize;
+
+    private TransactionProcessor processor;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Block genesisBlock = new Block(1, "");
+        genesisBlock.addAccount("master", new Account("master", Integer.MAX_VALUE));
+        for (int i = 0; i < accountCount; i++) {
+            String address = "account-" + i;
+            genesisBlock.addAccount(address, new Account(address, 0));
+        }
+
+        processor = new TransactionProcessor(new TransactionValidatorImpl(), new BlockchainRepositoryImpl(),
+                new MerkleHashGenerator(), "benchmark", genesisBlock, new BlockSealingPolicy(blockSize, 0, 0));
+    }
+
+    @Benchmark
+    public String processTransaction() throws LedgerException {
+        String receiver = "account-" + ThreadLocalRandom.current().nextInt(accountCount);
+        Transaction transaction = new Transaction(Long.toString(nextId++), 0, 10, "benchmark",
+                new Account("master", 0), new Account(receiver, 0));
+        return processor.processTransaction(transaction);
+    }
+}
@@ -0,0 +1,98 @@
+package com.se310.ledger.benchmark;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.FsyncPolicy;
+import com.se310.ledger.LedgerException;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.services.FileBlockchainRepository;
+import com.se310.ledger.services.MerkleHashGenerator;
+import com.se310.ledger.services.TransactionProcessor;
+import com.se310.ledger.services.TransactionValidatorImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark for the on-disk block log
+ * Appends are measured with fsync on every block and grouped every 64 blocks,
+ * reads decode a random block from the memory mapped segments or take one of the 64 most recent
+ * blocks, without and with a block cache of 256 blocks
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockLogBenchmark {
+
+    @Param({"1", "64"})
+    private int blocksPerSync;
+
+    @Param({"0", "256"})
+    private int cacheBlocks;
+
+    private Path directory;
+    private FileBlockchainRepository repository;
+    private TransactionProcessor processor;
+    private int nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, LedgerException {
+        directory = Files.createTempDirectory("block-log-benchmark");
+        repository = new FileBlockchainRepository(directory, 64L * 1024 * 1024, new FsyncPolicy(blocksPerSync, 0),
+                0, cacheBlocks);
+        Block genesisBlock = new Block(1, "");
+        genesisBlock.addAccount("master", new Account("master", Integer.MAX_VALUE));
+        genesisBlock.addAccount("receiver", new Account("receiver", 0));
+
+        processor = new TransactionProcessor(new TransactionValidatorImpl(), repository,
+                new MerkleHashGenerator(), "benchmark", genesisBlock);
+
+        for (nextId = 0; nextId < 10_000; nextId++) {
+            submit(Integer.toString(nextId));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public String appendTransaction() throws LedgerException {
+        return submit(Integer.toString(nextId++));
+    }
+
+    @Benchmark
+    public Block readBlock() {
+        return repository.getBlock(1 + ThreadLocalRandom.current().nextInt(repository.getBlockCount()));
+    }
+
+    @Benchmark
+    public Block readRecentBlock() {
+        return repository.getBlock(repository.getBlockCount() - ThreadLocalRandom.current().nextInt(64));
+    }
+
+    private String submit(String transactionId) throws LedgerException {
+        Block block = processor.getUncommittedBlock();
+        Transaction transaction = new Transaction(transactionId, 0, 10, "benchmark",
+                block.getAccount("master"), block.getAccount("receiver"));
+        return processor.processTransaction(transaction);
+    }
+}
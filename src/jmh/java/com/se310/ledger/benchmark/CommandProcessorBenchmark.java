@@ -0,0 +1,55 @@
+package com.se310.ledger.benchmark;
+
+import com.se310.ledger.CommandProcessor;
+import com.se310.ledger.CommandProcessorException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for parsing and dispatching script commands through CommandProcessor.processCommand
+ * Console output is discarded so the benchmark measures tokenizing and dispatch, not the terminal
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandProcessorBenchmark {
+
+    private PrintStream console;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws CommandProcessorException {
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        CommandProcessor.processCommand("create-ledger benchmark description \"command benchmark\" seed \"benchmark\"");
+        CommandProcessor.processCommand("create-account receiver");
+        CommandProcessor.processCommand("process-transaction funding amount 0 fee 10 note \"funding\" "
+                + "payer master receiver receiver");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public void processTransaction() throws CommandProcessorException {
+        CommandProcessor.processCommand("process-transaction " + nextId++
+                + " amount 1 fee 10 note \"benchmark transfer\" payer master receiver receiver");
+    }
+
+    @Benchmark
+    public void getAccountBalance() throws CommandProcessorException {
+        CommandProcessor.processCommand("get-account-balance receiver");
+    }
+}
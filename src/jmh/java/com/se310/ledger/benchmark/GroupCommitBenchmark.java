@@ -0,0 +1,77 @@
+package com.se310.ledger.benchmark;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.FsyncPolicy;
+import com.se310.ledger.LedgerException;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.services.FileBlockchainRepository;
+import com.se310.ledger.services.MerkleHashGenerator;
+import com.se310.ledger.services.TransactionProcessor;
+import com.se310.ledger.services.TransactionValidatorImpl;
+import com.se310.ledger.services.WriteAheadLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark for commit latency of durably logged transactions against the group commit window
+ * Eight threads submit concurrently, a wider window trades per-transaction latency for fewer fsyncs
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class GroupCommitBenchmark {
+
+    @Param({"0", "100", "1000"})
+    private long groupCommitMicros;
+
+    private final AtomicLong nextId = new AtomicLong();
+    private Path directory;
+    private FileBlockchainRepository repository;
+    private TransactionProcessor processor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("group-commit-benchmark");
+        repository = new FileBlockchainRepository(directory, 64L * 1024 * 1024, new FsyncPolicy(64, 0));
+        Block genesisBlock = new Block(1, "");
+        genesisBlock.addAccount("master", new Account("master", Integer.MAX_VALUE));
+        genesisBlock.addAccount("receiver", new Account("receiver", 0));
+
+        processor = new TransactionProcessor(new TransactionValidatorImpl(), repository,
+                new MerkleHashGenerator(), "benchmark", genesisBlock);
+        processor.recover(new WriteAheadLog(directory.resolve("transactions.wal"), groupCommitMicros));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        processor.getWriteAheadLog().close();
+        repository.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public String processTransaction() throws LedgerException {
+        Transaction transaction = new Transaction(Long.toString(nextId.getAndIncrement()), 0, 10, "benchmark",
+                new Account("master", 0), new Account("receiver", 0));
+        return processor.processTransaction(transaction);
+    }
+}
@@ -0,0 +1,63 @@
+package com.se310.ledger.benchmark;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.HashMode;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.interfaces.HashGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark comparing Merkle root computation of the legacy and binary engines at varying leaf counts
+ * generateBlockHash hashes the same leaves from transactions, as text for LEGACY and in their
+ * canonical binary encoding for BINARY. Run with -prof gc to compare allocation per root
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MerkleHashBenchmark {
+
+    @Param({"LEGACY", "BINARY"})
+    private HashMode hashMode;
+
+    @Param({"11", "1001", "100001"})
+    private int leafCount;
+
+    private HashGenerator hashGenerator;
+    private List<String> leaves;
+    private List<Transaction> transactions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        hashGenerator = hashMode.createHashGenerator();
+        leaves = new ArrayList<>(leafCount);
+        transactions = new ArrayList<>(leafCount);
+        leaves.add("benchmark");
+        Account payer = new Account("master", 0);
+        for (int i = 1; i < leafCount; i++) {
+            Transaction transaction = new Transaction(Integer.toString(i), 1000, 10, "benchmark", payer,
+                    new Account("account-" + i, 0));
+            transactions.add(transaction);
+            leaves.add(transaction.toString());
+        }
+    }
+
+    @Benchmark
+    public String generateHash() {
+        return hashGenerator.generateHash(leaves);
+    }
+
+    @Benchmark
+    public String generateBlockHash() {
+        return hashGenerator.generateHash("benchmark", transactions);
+    }
+}
@@ -0,0 +1,73 @@
+package com.se310.ledger.benchmark;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.BlockSealingPolicy;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.TransactionResult;
+import com.se310.ledger.interfaces.MetricsRegistry;
+import com.se310.ledger.services.BlockchainRepositoryImpl;
+import com.se310.ledger.services.MerkleHashGenerator;
+import com.se310.ledger.services.MetricsRegistryImpl;
+import com.se310.ledger.services.NoOpMetricsRegistry;
+import com.se310.ledger.services.TransactionProcessor;
+import com.se310.ledger.services.TransactionValidatorImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for the cost of recording metrics on batches of transfers sealed into blocks of 100
+ * Scores are transactions per millisecond with metrics disabled and enabled
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private static final int ACCOUNT_COUNT = 1000;
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"false", "true"})
+    private boolean metrics;
+
+    private TransactionProcessor processor;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Block genesisBlock = new Block(1, "");
+        int balance = Integer.MAX_VALUE / (ACCOUNT_COUNT + 1);
+        genesisBlock.addAccount("master", new Account("master", Integer.MAX_VALUE - balance * ACCOUNT_COUNT));
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            genesisBlock.addAccount("account-" + i, new Account("account-" + i, balance));
+        }
+
+        MetricsRegistry metricsRegistry = metrics ? new MetricsRegistryImpl() : NoOpMetricsRegistry.INSTANCE;
+        processor = new TransactionProcessor(new TransactionValidatorImpl(metricsRegistry),
+                new BlockchainRepositoryImpl(), new MerkleHashGenerator(), "benchmark", genesisBlock,
+                new BlockSealingPolicy(100, 0, 0));
+        processor.setMetricsRegistry(metricsRegistry);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<TransactionResult> transfer() {
+        List<Transaction> transactions = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            long id = nextId++;
+            transactions.add(new Transaction(Long.toString(id), 1, 10, "benchmark",
+                    new Account("account-" + (id % ACCOUNT_COUNT), 0),
+                    new Account("account-" + ((id * 7 + 1) % ACCOUNT_COUNT), 0)));
+        }
+        return processor.processTransactions(transactions);
+    }
+}
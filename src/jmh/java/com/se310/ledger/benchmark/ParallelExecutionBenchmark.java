@@ -0,0 +1,78 @@
+package com.se310.ledger.benchmark;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.BlockSealingPolicy;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.TransactionResult;
+import com.se310.ledger.services.BlockchainRepositoryImpl;
+import com.se310.ledger.services.MerkleHashGenerator;
+import com.se310.ledger.services.ParallelTransactionExecutor;
+import com.se310.ledger.services.TransactionProcessor;
+import com.se310.ledger.services.TransactionValidatorImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for a payout run, one payer paying thousands of distinct receivers in one batch,
+ * executed sequentially and speculatively on a growing number of threads
+ * Blocks are limited by bytes so sizing each transaction is part of the work
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelExecutionBenchmark {
+
+    @Param({"0", "1", "4"})
+    private int executionThreads;
+
+    @Param({"4096"})
+    private int batchSize;
+
+    private TransactionProcessor processor;
+    private ParallelTransactionExecutor executor;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TransactionValidatorImpl validator = new TransactionValidatorImpl();
+        Block genesisBlock = new Block(1, "");
+        genesisBlock.addAccount("master", new Account("master", Integer.MAX_VALUE));
+        for (int i = 0; i < batchSize; i++) {
+            genesisBlock.addAccount("account-" + i, new Account("account-" + i, 0));
+        }
+
+        processor = new TransactionProcessor(validator, new BlockchainRepositoryImpl(), new MerkleHashGenerator(),
+                "benchmark", genesisBlock, new BlockSealingPolicy(1000, 64 * 1024, 0));
+        if (executionThreads > 0) {
+            executor = new ParallelTransactionExecutor(executionThreads, validator);
+            processor.setParallelExecutor(executor);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (executor != null) {
+            executor.close();
+        }
+    }
+
+    @Benchmark
+    public List<TransactionResult> payout() {
+        List<Transaction> transactions = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            transactions.add(new Transaction(Long.toString(nextId++), 0, 10, "payout",
+                    new Account("master", 0), new Account("account-" + i, 0)));
+        }
+        return processor.processTransactions(transactions);
+    }
+}
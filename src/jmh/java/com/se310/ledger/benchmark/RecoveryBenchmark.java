@@ -0,0 +1,81 @@
+package com.se310.ledger.benchmark;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.FsyncPolicy;
+import com.se310.ledger.LedgerException;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.services.FileBlockchainRepository;
+import com.se310.ledger.services.MerkleHashGenerator;
+import com.se310.ledger.services.TransactionProcessor;
+import com.se310.ledger.services.TransactionValidatorImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark for reopening an on-disk chain with and without account-state snapshots
+ * Without snapshots every block is decoded and replayed, with them only the blocks after the newest one
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecoveryBenchmark {
+
+    @Param({"0", "100"})
+    private int snapshotInterval;
+
+    @Param({"5000"})
+    private int blockCount;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, LedgerException {
+        directory = Files.createTempDirectory("recovery-benchmark");
+        FileBlockchainRepository repository = new FileBlockchainRepository(directory, 64L * 1024 * 1024,
+                new FsyncPolicy(1024, 0), snapshotInterval);
+        Block genesisBlock = new Block(1, "");
+        genesisBlock.addAccount("master", new Account("master", Integer.MAX_VALUE));
+        for (int i = 0; i < 1000; i++) {
+            genesisBlock.addAccount("account-" + i, new Account("account-" + i, 0));
+        }
+
+        TransactionProcessor processor = new TransactionProcessor(new TransactionValidatorImpl(), repository,
+                new MerkleHashGenerator(), "benchmark", genesisBlock);
+        for (int i = 0; i < blockCount * 10; i++) {
+            processor.processTransaction(new Transaction(Integer.toString(i), 1, 10, "benchmark",
+                    new Account("master", 0), new Account("account-" + (i % 1000), 0)));
+        }
+        repository.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public Block reopen() throws IOException {
+        FileBlockchainRepository repository = new FileBlockchainRepository(directory, 64L * 1024 * 1024,
+                new FsyncPolicy(1024, 0), snapshotInterval);
+        Block lastBlock = repository.getLastBlock();
+        repository.close();
+        return lastBlock;
+    }
+}
@@ -0,0 +1,106 @@
+package com.se310.ledger.benchmark;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.BackpressurePolicy;
+import com.se310.ledger.Block;
+import com.se310.ledger.LedgerException;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.services.BlockchainRepositoryImpl;
+import com.se310.ledger.services.MerkleHashGenerator;
+import com.se310.ledger.services.TransactionProcessor;
+import com.se310.ledger.services.TransactionSequencer;
+import com.se310.ledger.services.TransactionValidatorImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark comparing concurrent producers calling the synchronized processor directly with producers
+ * submitting through the single-writer sequencer, from 1 to 64 producer threads
+ * Each producer submits a window of transactions and then waits for all of them
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SequencerBenchmark {
+
+    private static final int ACCOUNT_COUNT = 10000;
+    private static final int WINDOW = 64;
+
+    private TransactionProcessor processor;
+    private TransactionSequencer sequencer;
+    private final AtomicLong nextId = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Block genesisBlock = new Block(1, "");
+        genesisBlock.addAccount("master", new Account("master", Integer.MAX_VALUE));
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            String address = "account-" + i;
+            genesisBlock.addAccount(address, new Account(address, 0));
+        }
+
+        processor = new TransactionProcessor(new TransactionValidatorImpl(), new BlockchainRepositoryImpl(),
+                new MerkleHashGenerator(), "benchmark", genesisBlock);
+        sequencer = new TransactionSequencer(processor, 65536, 1024, BackpressurePolicy.BLOCK, "benchmark");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sequencer.close();
+    }
+
+    @Benchmark @Threads(1) @OperationsPerInvocation(WINDOW)
+    public void direct01() throws LedgerException { direct(); }
+
+    @Benchmark @Threads(4) @OperationsPerInvocation(WINDOW)
+    public void direct04() throws LedgerException { direct(); }
+
+    @Benchmark @Threads(16) @OperationsPerInvocation(WINDOW)
+    public void direct16() throws LedgerException { direct(); }
+
+    @Benchmark @Threads(64) @OperationsPerInvocation(WINDOW)
+    public void direct64() throws LedgerException { direct(); }
+
+    @Benchmark @Threads(1) @OperationsPerInvocation(WINDOW)
+    public void sequenced01() throws Exception { sequenced(); }
+
+    @Benchmark @Threads(4) @OperationsPerInvocation(WINDOW)
+    public void sequenced04() throws Exception { sequenced(); }
+
+    @Benchmark @Threads(16) @OperationsPerInvocation(WINDOW)
+    public void sequenced16() throws Exception { sequenced(); }
+
+    @Benchmark @Threads(64) @OperationsPerInvocation(WINDOW)
+    public void sequenced64() throws Exception { sequenced(); }
+
+    private void direct() throws LedgerException {
+        for (int i = 0; i < WINDOW; i++) {
+            processor.processTransaction(nextTransaction());
+        }
+    }
+
+    private void sequenced() throws LedgerException, InterruptedException, ExecutionException {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[WINDOW];
+        for (int i = 0; i < WINDOW; i++) {
+            futures[i] = sequencer.submit(nextTransaction());
+        }
+        CompletableFuture.allOf(futures).get();
+    }
+
+    private Transaction nextTransaction() {
+        long id = nextId.getAndIncrement();
+        Account master = new Account("master", 0);
+        Account receiver = new Account("account-" + (id % ACCOUNT_COUNT), 0);
+        return new Transaction(Long.toString(id), 0, 10, "benchmark", master, receiver);
+    }
+}
@@ -0,0 +1,71 @@
+package com.se310.ledger.benchmark;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.BlockSealingPolicy;
+import com.se310.ledger.LedgerException;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.services.AbstractTransactionProcessor;
+import com.se310.ledger.services.BlockchainRepositoryImpl;
+import com.se310.ledger.services.MerkleHashGenerator;
+import com.se310.ledger.services.ShardedTransactionProcessor;
+import com.se310.ledger.services.TransactionProcessor;
+import com.se310.ledger.services.TransactionValidatorImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark for transfer throughput against the shard count on a uniformly distributed workload
+ * Eight threads transfer between randomly chosen accounts, 0 shards is the unsharded processor
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class ShardingBenchmark {
+
+    @Param({"0", "1", "4", "16"})
+    private int shards;
+
+    @Param({"4096"})
+    private int accountCount;
+
+    private final AtomicLong nextId = new AtomicLong();
+    private AbstractTransactionProcessor processor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Block genesisBlock = new Block(1, "");
+        int balance = Integer.MAX_VALUE / (accountCount + 1);
+        genesisBlock.addAccount("master", new Account("master", Integer.MAX_VALUE - balance * accountCount));
+        for (int i = 0; i < accountCount; i++) {
+            genesisBlock.addAccount("account-" + i, new Account("account-" + i, balance));
+        }
+
+        BlockSealingPolicy sealingPolicy = new BlockSealingPolicy(1000, 0, 0);
+        processor = shards > 0
+                ? new ShardedTransactionProcessor(shards, new TransactionValidatorImpl(),
+                        new BlockchainRepositoryImpl(), new MerkleHashGenerator(), "benchmark", genesisBlock,
+                        sealingPolicy)
+                : new TransactionProcessor(new TransactionValidatorImpl(), new BlockchainRepositoryImpl(),
+                        new MerkleHashGenerator(), "benchmark", genesisBlock, sealingPolicy);
+    }
+
+    @Benchmark
+    public String transfer() throws LedgerException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Transaction transaction = new Transaction(Long.toString(nextId.getAndIncrement()), 1, 10, "benchmark",
+                new Account("account-" + random.nextInt(accountCount), 0),
+                new Account("account-" + random.nextInt(accountCount), 0));
+        return processor.processTransaction(transaction);
+    }
+}
@@ -0,0 +1,74 @@
+package com.se310.ledger.benchmark;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.LedgerException;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.services.BlockchainRepositoryImpl;
+import com.se310.ledger.services.MerkleHashGenerator;
+import com.se310.ledger.services.TransactionProcessor;
+import com.se310.ledger.services.TransactionValidatorImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for transaction lookup and duplicate detection at varying chain lengths
+ * Lookup cost should stay flat as the number of committed transactions grows
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionLookupBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int chainLength;
+
+    private BlockchainRepositoryImpl repository;
+    private TransactionProcessor processor;
+    private int nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws LedgerException {
+        repository = new BlockchainRepositoryImpl();
+        Block genesisBlock = new Block(1, "");
+        genesisBlock.addAccount("master", new Account("master", Integer.MAX_VALUE));
+        genesisBlock.addAccount("receiver", new Account("receiver", 0));
+
+        processor = new TransactionProcessor(new TransactionValidatorImpl(), repository,
+                new MerkleHashGenerator(), "benchmark", genesisBlock);
+
+        for (nextId = 0; nextId < chainLength; nextId++) {
+            submit(Integer.toString(nextId));
+        }
+    }
+
+    @Benchmark
+    public Transaction getTransaction() {
+        return repository.getTransaction(Integer.toString(ThreadLocalRandom.current().nextInt(chainLength)));
+    }
+
+    @Benchmark
+    public boolean duplicateCheck() {
+        return repository.containsTransaction(Integer.toString(ThreadLocalRandom.current().nextInt(chainLength)));
+    }
+
+    @Benchmark
+    public String processTransaction() throws LedgerException {
+        return submit(Integer.toString(nextId++));
+    }
+
+    private String submit(String transactionId) throws LedgerException {
+        Block block = processor.getUncommittedBlock();
+        Transaction transaction = new Transaction(transactionId, 0, 10, "benchmark",
+                block.getAccount("master"), block.getAccount("receiver"));
+        return processor.processTransaction(transaction);
+    }
+}
@@ -0,0 +1,81 @@
+package com.se310.ledger.benchmark;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.LedgerException;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.services.BlockchainRepositoryImpl;
+import com.se310.ledger.services.BlockchainValidatorImpl;
+import com.se310.ledger.services.MerkleHashGenerator;
+import com.se310.ledger.services.TransactionProcessor;
+import com.se310.ledger.services.TransactionValidatorImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for blockchain validation at varying chain lengths
+ * validate checks only the block sealed since its checkpoint and should stay flat as the chain grows,
+ * validateFull and validateDeep re-verify every block
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({"100", "10000"})
+    private int chainLength;
+
+    private BlockchainValidatorImpl validator;
+    private TransactionProcessor processor;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws LedgerException {
+        BlockchainRepositoryImpl repository = new BlockchainRepositoryImpl();
+        MerkleHashGenerator hashGenerator = new MerkleHashGenerator();
+        Block genesisBlock = new Block(1, "");
+        genesisBlock.addAccount("master", new Account("master", Integer.MAX_VALUE));
+        for (int i = 0; i < 100; i++) {
+            genesisBlock.addAccount("account-" + i, new Account("account-" + i, 0));
+        }
+
+        processor = new TransactionProcessor(new TransactionValidatorImpl(), repository, hashGenerator,
+                "benchmark", genesisBlock);
+        validator = new BlockchainValidatorImpl(repository, hashGenerator, "benchmark");
+        while (repository.getBlockCount() < chainLength) {
+            sealBlock();
+        }
+        validator.validate();
+    }
+
+    @Benchmark
+    public void validate() throws LedgerException {
+        sealBlock();
+        validator.validate();
+    }
+
+    @Benchmark
+    public void validateFull() throws LedgerException {
+        validator.validateFull();
+    }
+
+    @Benchmark
+    public void validateDeep() throws LedgerException {
+        validator.validateDeep(null);
+    }
+
+    private void sealBlock() throws LedgerException {
+        // The default sealing policy seals every 10 transactions
+        for (int i = 0; i < 10; i++) {
+            processor.processTransaction(new Transaction(Long.toString(nextId++), 1, 10, "benchmark",
+                    new Account("master", 0), new Account("account-" + (nextId % 100), 0)));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.se310.ledger;
+
+/**
+ * BackpressurePolicy enumeration representing what happens when the ingestion queue is full
+ *
+ * BLOCK waits until the sequencer frees a slot, FAIL rejects the submission with a LedgerException
+ * and DROP returns a future that is already completed exceptionally.
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public enum BackpressurePolicy {
+    BLOCK,
+    FAIL,
+    DROP;
+
+    /**
+     * Look up BackpressurePolicy by its command name
+     * @param name
+     * @return BackpressurePolicy
+     * @throws LedgerException
+     */
+    public static BackpressurePolicy fromName(String name) throws LedgerException {
+        for (BackpressurePolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(name)) {
+                return policy;
+            }
+        }
+        throw new LedgerException("Create Ledger", "Unknown Backpressure Policy: " + name);
+    }
+}
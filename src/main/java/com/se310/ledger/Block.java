@@ -1,13 +1,24 @@
 package com.se310.ledger;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 
 /**
  * Block class implementation representing block in the Blockchain
  *
+ * Account state is held in a PersistentAccountMap shared with the previous block. A block owns
+ * only the accounts it created or touched, every other account is shared with its predecessor.
+ *
+ * A block sealed into a repository does not keep its predecessor reachable, getPreviousBlock looks it up
+ * by number instead, so holding one block does not pin the chain before it. A block read back from storage
+ * may load its account state on first access instead.
+ *
  * @author  Sergey L. Sundukovskiy
  * @version 1.0
  */
@@ -16,9 +27,13 @@ public class Block {
     private int blockNumber;
     private String previousHash;
     private String hash;
-    private final Map<String,Account> accountBalanceMap = new HashMap<String,Account>();
+    private PersistentAccountMap accountBalanceMap = PersistentAccountMap.empty();
+    private volatile Supplier<PersistentAccountMap> accountStateLoader;
+    private final Map<String,Account> touchedAccounts = new HashMap<String,Account>();
     private final List<Transaction> transactionList = new ArrayList<Transaction>();
     private Block previousBlock;
+    private IntFunction<Block> previousBlockLookup;
+    private BlockSealingPolicy sealingPolicy;
 
     /**
      * Block Constructor
@@ -30,6 +45,19 @@ public class Block {
         this.previousHash = previousHash;
     }
 
+    /**
+     * Block Constructor for the block following the given committed block,
+     * account state is shared with the previous block until touched
+     * @param blockNumber
+     * @param previousBlock
+     */
+    public Block(int blockNumber, Block previousBlock) {
+        this.blockNumber = blockNumber;
+        this.previousHash = previousBlock.getHash();
+        this.previousBlock = previousBlock;
+        this.accountBalanceMap = previousBlock.accountState();
+    }
+
     /**
      * Getter Method for block number
      * @return
@@ -79,11 +107,30 @@ public class Block {
     }
 
     /**
-     * Get a map of all the accounts in the system
+     * Get a read only map of all the accounts in the system
      * @return
      */
     public Map<String, Account> getAccountBalanceMap() {
-        return accountBalanceMap;
+        return accountState();
+    }
+
+    /**
+     * Replace the account state of the block, used when a block is restored from storage
+     * with the state rebuilt from the blocks before it
+     * @param accountBalanceMap
+     */
+    public void setAccountBalanceMap(PersistentAccountMap accountBalanceMap) {
+        this.accountBalanceMap = accountBalanceMap;
+        this.accountStateLoader = null;
+    }
+
+    /**
+     * Load the account state of the block on first access, used when a block is read back from storage
+     * holding only the accounts it touched
+     * @param accountStateLoader returns the state of every account as of this block
+     */
+    public void setAccountStateLoader(Supplier<PersistentAccountMap> accountStateLoader) {
+        this.accountStateLoader = accountStateLoader;
     }
 
     /**
@@ -100,24 +147,60 @@ public class Block {
      * @param account
      */
     public void addAccount(String address, Account account){
-        this.accountBalanceMap.put(address, account);
+        this.accountBalanceMap = accountState().with(address, account);
+        this.touchedAccounts.put(address, account);
     }
 
     /**
      * Get Account from the Blockchain given account address
+     * The returned Account may be shared with previous blocks and must not be modified,
+     * use getAccountForUpdate to obtain a copy owned by this block
      * @param address
      * @return
      */
     public Account getAccount(String address){
-        return this.accountBalanceMap.get(address);
+        return accountState().get(address);
     }
 
     /**
-     * Getter method for previous block
+     * Get Account owned by this block, copying it from the previous block on first access
+     * @param address
+     * @return Account or Null
+     */
+    public Account getAccountForUpdate(String address){
+        Account account = this.touchedAccounts.get(address);
+        if (account != null) {
+            return account;
+        }
+
+        Account sharedAccount = accountState().get(address);
+        if (sharedAccount == null) {
+            return null;
+        }
+
+        account = sharedAccount.clone();
+        addAccount(address, account);
+        return account;
+    }
+
+    /**
+     * Get the accounts created or modified in this block
      * @return
      */
+    public Collection<Account> getTouchedAccounts() {
+        return Collections.unmodifiableCollection(touchedAccounts.values());
+    }
+
+    /**
+     * Getter method for previous block, looked up by number when no reference to it is held
+     * @return Block or Null if there is no previous block
+     */
     public Block getPreviousBlock() {
-        return previousBlock;
+        Block block = previousBlock;
+        if (block == null && previousBlockLookup != null) {
+            return previousBlockLookup.apply(blockNumber - 1);
+        }
+        return block;
     }
 
     /**
@@ -127,4 +210,44 @@ public class Block {
     public void setPreviousBlock(Block previousBlock) {
         this.previousBlock = previousBlock;
     }
+
+    /**
+     * Release the reference to the previous block, looking it up by number from then on
+     * @param previousBlockLookup returns the block with the given number, or null
+     */
+    public void setPreviousBlockLookup(IntFunction<Block> previousBlockLookup) {
+        this.previousBlock = null;
+        this.previousBlockLookup = previousBlockLookup;
+    }
+
+    /**
+     * Getter method for the policy that sealed this block
+     * @return BlockSealingPolicy or Null if the block has not been sealed
+     */
+    public BlockSealingPolicy getSealingPolicy() {
+        return sealingPolicy;
+    }
+
+    /**
+     * Setter method for the policy that sealed this block
+     * @param sealingPolicy
+     */
+    public void setSealingPolicy(BlockSealingPolicy sealingPolicy) {
+        this.sealingPolicy = sealingPolicy;
+    }
+
+    private PersistentAccountMap accountState() {
+        if (accountStateLoader != null) {
+            loadAccountState();
+        }
+        return accountBalanceMap;
+    }
+
+    private synchronized void loadAccountState() {
+        Supplier<PersistentAccountMap> loader = accountStateLoader;
+        if (loader != null) {
+            accountBalanceMap = loader.get();
+            accountStateLoader = null;
+        }
+    }
 }
@@ -0,0 +1,142 @@
+package com.se310.ledger;
+
+import com.se310.ledger.services.TransactionCodec;
+
+/**
+ * BlockSealingPolicy class implementation deciding when the uncommitted block is sealed
+ *
+ * A block is sealed once it holds maxTransactions transactions, when the next transaction would push
+ * it past maxBytes serialized bytes, or once its first transaction has waited maxLingerMillis.
+ * A limit of 0 disables the byte and linger rules. Every sealed block remembers the policy that
+ * sealed it so the validator can check it against the same limits.
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public class BlockSealingPolicy {
+
+    public static final int DEFAULT_MAX_TRANSACTIONS = 10;
+
+    private final int maxTransactions;
+    private final long maxBytes;
+    private final long maxLingerMillis;
+
+    /**
+     * Default policy sealing every 10 transactions
+     */
+    public BlockSealingPolicy() {
+        this(DEFAULT_MAX_TRANSACTIONS, 0, 0);
+    }
+
+    /**
+     * BlockSealingPolicy Constructor
+     * @param maxTransactions
+     * @param maxBytes
+     * @param maxLingerMillis
+     */
+    public BlockSealingPolicy(int maxTransactions, long maxBytes, long maxLingerMillis) {
+        if (maxTransactions < 1 || maxBytes < 0 || maxLingerMillis < 0) {
+            throw new IllegalArgumentException("Block Sealing Limits Are Out of Range");
+        }
+        this.maxTransactions = maxTransactions;
+        this.maxBytes = maxBytes;
+        this.maxLingerMillis = maxLingerMillis;
+    }
+
+    /**
+     * Getter method for the maximum number of transactions in a block
+     * @return
+     */
+    public int getMaxTransactions() {
+        return maxTransactions;
+    }
+
+    /**
+     * Getter method for the maximum serialized size of a block, 0 if unlimited
+     * @return
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Getter method for the maximum time the first transaction of a block waits, 0 if unlimited
+     * @return
+     */
+    public long getMaxLingerMillis() {
+        return maxLingerMillis;
+    }
+
+    /**
+     * Serialized size of a transaction as counted against maxBytes, the length of its TransactionCodec encoding
+     * @param transaction
+     * @return
+     */
+    public long sizeOf(Transaction transaction) {
+        return TransactionCodec.encodedLength(transaction);
+    }
+
+    /**
+     * Check if a block holding the given transactions must be sealed
+     * @param transactionCount
+     * @return
+     */
+    public boolean isFull(int transactionCount) {
+        return transactionCount >= maxTransactions;
+    }
+
+    /**
+     * Check if adding a transaction of the given size to a non empty block would exceed maxBytes
+     * @param blockBytes
+     * @param transactionBytes
+     * @return
+     */
+    public boolean wouldOverflow(long blockBytes, long transactionBytes) {
+        return maxBytes > 0 && blockBytes > 0 && blockBytes + transactionBytes > maxBytes;
+    }
+
+    /**
+     * Check if a block opened at the given time has lingered too long
+     * @param openedAtNanos
+     * @param nowNanos
+     * @return
+     */
+    public boolean isExpired(long openedAtNanos, long nowNanos) {
+        return maxLingerMillis > 0 && nowNanos - openedAtNanos >= maxLingerMillis * 1_000_000L;
+    }
+
+    /**
+     * Check a sealed block against this policy
+     * @param block
+     * @return String describing the violation or null if the block conforms
+     */
+    public String getViolation(Block block) {
+        int transactionCount = block.getTransactionList().size();
+
+        // Blocks sealed only by count must be exactly full
+        if (maxBytes == 0 && maxLingerMillis == 0) {
+            return transactionCount == maxTransactions ? null : "Transaction Count Is Not " + maxTransactions;
+        }
+
+        if (transactionCount < 1 || transactionCount > maxTransactions) {
+            return "Transaction Count Is Out of Range";
+        }
+
+        if (maxBytes > 0 && transactionCount > 1) {
+            long blockBytes = 0;
+            for (Transaction transaction : block.getTransactionList()) {
+                blockBytes += sizeOf(transaction);
+            }
+            if (blockBytes > maxBytes) {
+                return "Block Size Exceeds " + maxBytes + " Bytes";
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "Max Transactions: " + maxTransactions + ", Max Bytes: " + maxBytes
+                + ", Max Linger Millis: " + maxLingerMillis;
+    }
+}
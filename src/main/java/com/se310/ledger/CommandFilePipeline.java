@@ -0,0 +1,237 @@
+package com.se310.ledger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * CommandFilePipeline class implementation designed to read and parse a command file ahead of execution
+ *
+ * A reader thread reads the file through a large NIO buffer and cuts it into chunks of lines numbered by
+ * their first line. A pool of parser threads tokenizes each chunk and builds the Transaction of every
+ * process-transaction line. Chunks are queued in file order in a bounded queue as they are handed to the
+ * parsers, so the thread executing commands takes them in line order while later chunks are still being
+ * read and parsed. Parsing never looks at a Ledger, checks that depend on Ledger state are left to the
+ * thread executing commands.
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+class CommandFilePipeline implements AutoCloseable {
+
+    private static final int READ_BUFFER_CHARS = 1024 * 1024;
+    private static final int CHUNK_LINES = 512;
+    private static final int CHUNKS_PER_PARSER = 4;
+
+    private final Path path;
+    private final boolean echo;
+    private final ExecutorService parsers;
+    private final BlockingQueue<Future<Chunk>> chunks;
+    private final Thread reader;
+
+    private Chunk chunk;
+    private int index;
+    private int lineCount;
+
+    /**
+     * Parsed line of a command file
+     */
+    static class ParsedCommand {
+        private final int lineNumber;
+        private final String line;
+        private final List<String> tokens;
+        private final Transaction transaction;
+        private final String echoLine;
+
+        ParsedCommand(int lineNumber, String line, List<String> tokens, Transaction transaction, String echoLine) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.tokens = tokens;
+            this.transaction = transaction;
+            this.echoLine = echoLine;
+        }
+
+        int getLineNumber() {
+            return lineNumber;
+        }
+
+        String getLine() {
+            return line;
+        }
+
+        List<String> getTokens() {
+            return tokens;
+        }
+
+        /**
+         * Getter method for the Transaction of a well formed process-transaction line
+         * @return Transaction or Null for any other line, its payer and receiver are not checked
+         */
+        Transaction getTransaction() {
+            return transaction;
+        }
+
+        String getEchoLine() {
+            return echoLine;
+        }
+    }
+
+    /**
+     * Lines of the file starting at firstLineNumber, commands is filled in by a parser
+     */
+    private static class Chunk {
+        private final int firstLineNumber;
+        private final List<String> lines;
+        private final ParsedCommand[] commands;
+        private final boolean last;
+
+        Chunk(int firstLineNumber, List<String> lines, boolean last) {
+            this.firstLineNumber = firstLineNumber;
+            this.lines = lines;
+            this.commands = new ParsedCommand[lines.size()];
+            this.last = last;
+        }
+    }
+
+    /**
+     * Start reading and parsing a command file
+     * @param path
+     * @param parserCount number of parser threads
+     * @param echo whether to build the echo line of process-transaction lines
+     */
+    CommandFilePipeline(Path path, int parserCount, boolean echo) {
+        this.path = path;
+        this.echo = echo;
+        this.parsers = Executors.newFixedThreadPool(parserCount, runnable -> {
+            Thread thread = new Thread(runnable, "command-parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.chunks = new ArrayBlockingQueue<>(parserCount * CHUNKS_PER_PARSER);
+        this.reader = new Thread(this::read, "command-reader");
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    /**
+     * Take the next command in line order, waiting for it to be parsed
+     * @return ParsedCommand or Null at the end of the file
+     * @throws IOException if reading the file failed, every line before the failure has been returned
+     */
+    ParsedCommand next() throws IOException {
+        while (true) {
+            if (chunk != null && index < chunk.commands.length) {
+                ParsedCommand command = chunk.commands[index++];
+                if (command != null) {
+                    return command;
+                }
+                continue;
+            }
+            if (chunk != null && chunk.last) {
+                return null;
+            }
+            chunk = take();
+            index = 0;
+            lineCount = chunk.firstLineNumber - 1 + chunk.lines.size();
+        }
+    }
+
+    /**
+     * Getter method for the number of lines taken so far, comment and blank lines included
+     * @return
+     */
+    int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Stop the reader and parser threads
+     */
+    @Override
+    public void close() {
+        reader.interrupt();
+        parsers.shutdownNow();
+    }
+
+    private Chunk take() throws IOException {
+        try {
+            return chunks.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Command File Interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    private void read() {
+        int lineNumber = 1;
+        try {
+            try (BufferedReader lines = new BufferedReader(Channels.newReader(FileChannel.open(path),
+                    StandardCharsets.UTF_8.newDecoder(), -1), READ_BUFFER_CHARS)) {
+                List<String> batch = new ArrayList<>(CHUNK_LINES);
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    batch.add(line);
+                    if (batch.size() == CHUNK_LINES) {
+                        submit(new Chunk(lineNumber, batch, false));
+                        lineNumber += CHUNK_LINES;
+                        batch = new ArrayList<>(CHUNK_LINES);
+                    }
+                }
+                submit(new Chunk(lineNumber, batch, true));
+            } catch (IOException e) {
+                chunks.put(CompletableFuture.failedFuture(e));
+            }
+        } catch (InterruptedException e) {
+            // Closed before the file was read
+        }
+    }
+
+    private void submit(Chunk chunk) throws InterruptedException {
+        chunks.put(parsers.submit(() -> parse(chunk)));
+    }
+
+    private Chunk parse(Chunk chunk) {
+        for (int i = 0; i < chunk.commands.length; i++) {
+            String line = chunk.lines.get(i);
+            if (line.trim().startsWith("#") || line.trim().isEmpty()) {
+                continue;
+            }
+
+            List<String> tokens = new ArrayList<>();
+            CommandProcessor.tokenize(line, tokens);
+            Transaction transaction = null;
+            String echoLine = null;
+            if (tokens.size() == 12 && tokens.get(0).equals("process-transaction")) {
+                try {
+                    transaction = CommandProcessor.buildTransaction(tokens);
+                    echoLine = echo ? CommandProcessor.transactionEcho(tokens) : null;
+                } catch (NumberFormatException e) {
+                    // Left to the thread executing commands, which reports it
+                }
+            }
+            chunk.commands[i] = new ParsedCommand(chunk.firstLineNumber + i, line, tokens, transaction, echoLine);
+        }
+        return chunk;
+    }
+}
@@ -1,105 +1,235 @@
 package com.se310.ledger;
 
 
+import com.se310.ledger.services.LatencyHistogram;
+import com.se310.ledger.services.MetricsRegistryImpl;
+import com.se310.ledger.services.NoOpMetricsRegistry;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.PrintStream;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
 /**
  * CommandProcessor class implementation designed to process individual Blockchain commands
  *
+ * Every Ledger created is hosted in a LedgerRegistry. Commands go to the current Ledger, which is the
+ * one created or selected with use-ledger last, a command prefixed with @name goes to that Ledger only.
+ *
+ * Command files are read and parsed ahead by a CommandFilePipeline while this thread executes the parsed
+ * commands in line order, with output buffered until the end of the file. Consecutive process-transaction
+ * lines for the current Ledger are processed as one batch and reported in line order, any other line first
+ * processes the pending batch. In throughput mode commands are not echoed and the number of lines
+ * processed per second is reported.
+ *
  * @author  Sergey L. Sundukovskiy
  * @version 1.0
  */
 public class CommandProcessor {
 
+    private static final int DEFAULT_PAGE_SIZE = 10;
+    private static final int OUTPUT_BUFFER_BYTES = 64 * 1024;
+
+    private static final LedgerRegistry registry = new LedgerRegistry();
+
     private static Ledger ledger = null;
 
+    // Buffered output while a command file is processed, console output otherwise
+    private static PrintStream out = null;
+    private static boolean echo = true;
+
     public static void processCommand(String command) throws CommandProcessorException {
 
         List<String> tokens = new ArrayList<>();
-        //Split the line into tokens between spaces and quotes
-        Matcher matcher = Pattern.compile("([^\"]\\S*|\".+?\")\\s*").matcher(command);
-        while (matcher.find())
-            tokens.add(matcher.group(1).replace("\"", ""));
+        tokenize(command, tokens);
+        processCommand(command, tokens);
+    }
+
+    /**
+     * Process a command already split into tokens
+     * @param command
+     * @param tokens tokens of the command
+     * @throws CommandProcessorException
+     */
+    private static void processCommand(String command, List<String> tokens) throws CommandProcessorException {
+        reportBackgroundFailure();
+
+        // Route a single command to the named Ledger
+        if (tokens.get(0).startsWith("@")) {
+            if(tokens.size() < 2)
+                throw new CommandProcessorException(tokens.get(0), "Missing Arguments");
+
+            Ledger current = ledger;
+            try {
+                ledger = registry.getLedger(tokens.get(0).substring(1));
+            } catch (LedgerException e) {
+                output().println("Failed due to: " + e.getReason());
+                return;
+            }
+            try {
+                processCommand(command.trim().substring(tokens.get(0).length()).trim());
+            } finally {
+                ledger = current;
+            }
+            return;
+        }
 
         switch (tokens.get(0)) {
             case "create-ledger" -> {
-                if(tokens.size() != 6)
+                if(tokens.size() < 6 || tokens.size() % 2 != 0)
                     throw new CommandProcessorException("create-ledger", "Missing Arguments");
 
-                System.out.println("Creating Ledger: " + tokens.get(1) + " " + tokens.get(3) + " " + tokens.get(5));
-                ledger = Ledger.getInstance(tokens.get(1), tokens.get(3), tokens.get(5));
+                LedgerConfig config = parseLedgerOptions(tokens);
+
+                echo("Creating Ledger: " + tokens.get(1) + " " + tokens.get(3) + " " + tokens.get(5));
+                try {
+                    ledger = registry.createLedger(tokens.get(1), tokens.get(3), tokens.get(5), config);
+                } catch (LedgerException e) {
+                    output().println("Failed due to: " + e.getReason());
+                }
+            }
+            case "use-ledger" -> {
+                if(tokens.size() != 2)
+                    throw new CommandProcessorException("use-ledger", "Missing Arguments");
+
+                echo("Using Ledger: " + tokens.get(1));
+                try {
+                    ledger = registry.getLedger(tokens.get(1));
+                } catch (LedgerException e) {
+                    output().println("Failed due to: " + e.getReason());
+                }
+            }
+            case "list-ledgers" -> {
+                echo("Listing Ledgers");
+                for (String name : registry.getLedgerNames()) {
+                    output().println("Ledger: " + name + (ledger != null && ledger.getName().equals(name)
+                            ? " (current)" : ""));
+                }
+            }
+            case "close-ledger" -> {
+                if(tokens.size() != 2)
+                    throw new CommandProcessorException("close-ledger", "Missing Arguments");
+
+                echo("Closing Ledger: " + tokens.get(1));
+                try {
+                    Ledger closing = registry.getLedger(tokens.get(1));
+                    registry.closeLedger(tokens.get(1));
+                    if (ledger == closing) {
+                        ledger = null;
+                    }
+                } catch (LedgerException e) {
+                    output().println("Failed due to: " + e.getReason());
+                }
             }
             case "create-account" -> {
                 if(tokens.size() != 2)
                     throw new CommandProcessorException("create-account", "Missing Arguments");
 
-                System.out.println("Creating Account: " + tokens.get(1));
+                echo("Creating Account: " + tokens.get(1));
                 try {
                     ledger.createAccount(tokens.get(1));
                 } catch (LedgerException e) {
-                    System.out.println("Failed due to: " + e.getReason());
+                    output().println("Failed due to: " + e.getReason());
                 }
             }
             case "get-account-balance" -> {
                 if(tokens.size() != 2)
                     throw new CommandProcessorException("create-account", "Missing Arguments");
 
-                System.out.println("Getting Balance for: " + tokens.get(1));
+                echo("Getting Balance for: " + tokens.get(1));
                 try {
-                    System.out.println("Account Balance for: " + tokens.get(1) + " is "
+                    output().println("Account Balance for: " + tokens.get(1) + " is "
                             + ledger.getAccountBalance(tokens.get(1)));
 
                 } catch (LedgerException e) {
-                    System.out.println("Failed due to: " + e.getReason());
+                    output().println("Failed due to: " + e.getReason());
                 }
             }
             case "get-account-balances" -> {
-                System.out.println("Getting All Balances");
+                echo("Getting All Balances");
 
                 Map<String,Integer> map = ledger.getAccountBalances();
 
                 if(map == null){
-                    System.out.println("No Account Has Been Committed");
+                    output().println("No Account Has Been Committed");
                     break;
                 }
 
                 Set<String> keys = new HashSet<>(map.keySet());
 
                 for (String key : keys) {
-                    System.out.println("Account Balance for: " + key + " is " + map.get(key));
+                    output().println("Account Balance for: " + key + " is " + map.get(key));
                 }
             }
-            case "process-transaction" -> {
+            case "get-account-balance-at" -> {
+                if(tokens.size() != 3)
+                    throw new CommandProcessorException("get-account-balance-at", "Missing Arguments");
 
-                if(tokens.size() != 12)
-                    throw new CommandProcessorException("process-transaction", "Missing Arguments");
+                int blockNumber = parseBlockNumber("get-account-balance-at", tokens.get(2));
+                echo("Getting Balance for: " + tokens.get(1) + " at Block: " + blockNumber);
+                try {
+                    output().println("Account Balance for: " + tokens.get(1) + " at Block: " + blockNumber + " is "
+                            + ledger.getAccountBalanceAt(tokens.get(1), blockNumber));
+                } catch (LedgerException e) {
+                    output().println("Failed due to: " + e.getReason());
+                }
+            }
+            case "get-account-balances-at" -> {
+                if(tokens.size() != 2)
+                    throw new CommandProcessorException("get-account-balances-at", "Missing Arguments");
 
-                System.out.println("Processing Transaction: " + tokens.get(1) + " "
-                        + tokens.get(3) + " " + tokens.get(5) + " " + tokens.get(7) + " "
-                        + tokens.get(9) + " " + tokens.get(11) + " ");
+                int blockNumber = parseBlockNumber("get-account-balances-at", tokens.get(1));
+                echo("Getting All Balances at Block: " + blockNumber);
 
-                Block block = ledger.getUncommittedBlock();
+                Map<String,Integer> current = ledger.getAccountBalances();
+                if(current == null){
+                    output().println("No Account Has Been Committed");
+                    break;
+                }
+                try {
+                    Map<String,Integer> map = ledger.getAccountBalancesAt(current.keySet(), blockNumber);
+                    for (String key : new TreeSet<>(map.keySet())) {
+                        output().println("Account Balance for: " + key + " at Block: " + blockNumber + " is "
+                                + map.get(key));
+                    }
+                } catch (LedgerException e) {
+                    output().println("Failed due to: " + e.getReason());
+                }
+            }
+            case "get-account-transactions" -> {
+                if(tokens.size() < 2 || tokens.size() > 4)
+                    throw new CommandProcessorException("get-account-transactions", "Missing Arguments");
 
-                Account payer = block.getAccount (tokens.get(9));
-                Account receiver = block.getAccount(tokens.get(11));
+                int fromBlock;
+                int limit;
+                try {
+                    fromBlock = tokens.size() > 2 ? Integer.parseInt(tokens.get(2)) : 1;
+                    limit = tokens.size() > 3 ? Integer.parseInt(tokens.get(3)) : DEFAULT_PAGE_SIZE;
+                } catch (NumberFormatException e) {
+                    throw new CommandProcessorException("get-account-transactions", "Invalid Arguments");
+                }
 
-                if(payer == null || receiver == null){
-                    throw new CommandProcessorException("process-transaction", "Account Does Not Exist") ;
+                echo("Getting Transactions for: " + tokens.get(1) + " From Block: " + fromBlock);
+                try {
+                    for (Transaction transaction : ledger.getTransactionsForAccount(tokens.get(1), fromBlock, limit)) {
+                        output().println(transaction.toString());
+                    }
+                } catch (LedgerException e) {
+                    output().println("Failed due to: " + e.getReason());
                 }
+            }
+            case "process-transaction" -> {
+
+                if(tokens.size() != 12)
+                    throw new CommandProcessorException("process-transaction", "Missing Arguments");
 
-                Transaction tempTransaction = new Transaction(tokens.get(1), Integer.parseInt(tokens.get(3)),
-                        Integer.parseInt(tokens.get(5)), tokens.get(7), payer, receiver);
+                echo(transactionEcho(tokens));
+
+                Transaction tempTransaction = parseTransaction(tokens);
                 try {
                     ledger.processTransaction(tempTransaction);
                 } catch (LedgerException e) {
-                    System.out.println("Failed due to: " + e.getReason());
+                    output().println("Failed due to: " + e.getReason());
                 }
             }
             case "get-block" -> {
@@ -107,21 +237,21 @@ public class CommandProcessor {
                 if(tokens.size() != 2)
                     throw new CommandProcessorException("get-block", "Missing Arguments");
 
-                System.out.println("Get Block: " + tokens.get(1));
+                echo("Get Block: " + tokens.get(1));
                 Block block = null;
                 try {
                     block = ledger.getBlock(Integer.parseInt(tokens.get(1)));
                 } catch (LedgerException e) {
-                    System.out.println("Failed due to: " + e.getReason());
+                    output().println("Failed due to: " + e.getReason());
                     break;
                 }
 
-                System.out.println("Block Number: " + block.getBlockNumber() + " "
+                output().println("Block Number: " + block.getBlockNumber() + " "
                         + "Hash: " + block.getHash() + " " + "Previous Hash: " + block.getPreviousHash()
                 );
 
                 for(Transaction transaction: block.getTransactionList()){
-                    System.out.println(transaction.toString());
+                    output().println(transaction.toString());
                 }
 
             }
@@ -130,23 +260,51 @@ public class CommandProcessor {
                 if(tokens.size() != 2)
                     throw new CommandProcessorException("get-transaction", "Missing Arguments");
 
-                System.out.println("Get Transaction: " + tokens.get(1));
+                echo("Get Transaction: " + tokens.get(1));
                 Transaction transaction = ledger.getTransaction(tokens.get(1));
 
-                System.out.println("Transaction ID: " + transaction.getTransactionId() + " "
+                output().println("Transaction ID: " + transaction.getTransactionId() + " "
                         + "Amount: " + transaction.getAmount() + " " + "Fee: "
                         + transaction.getFee() + " " + "Note: " + transaction.getNote() + " " + "Payer: "
                         + transaction.getPayer().getAddress() + " " + "Receiver: "
                         + transaction.getReceiver().getAddress()
                 );
             }
+            case "stats" -> {
+                if(tokens.size() > 2 || (tokens.size() == 2 && !tokens.get(1).equals("reset")))
+                    throw new CommandProcessorException("stats", "Invalid Option: " + tokens.get(tokens.size() - 1));
+
+                try {
+                    if (tokens.size() == 2) {
+                        echo("Resetting Stats");
+                        ledger.resetMetrics();
+                    } else {
+                        echo("Getting Stats");
+                        printMetrics(ledger.getMetrics());
+                    }
+                } catch (LedgerException e) {
+                    output().println("Failed due to: " + e.getReason());
+                }
+            }
             case "validate" -> {
-                System.out.print("Validate: ");
+                String mode = tokens.size() == 2 ? tokens.get(1) : "";
+                if(tokens.size() > 2 || !(mode.isEmpty() || mode.equals("full") || mode.equals("deep")))
+                    throw new CommandProcessorException("validate", "Invalid Option: " + mode);
+
+                switch (mode) {
+                    case "full" -> output().print("Validate Full: ");
+                    case "deep" -> output().print("Validate Deep: ");
+                    default -> output().print("Validate: ");
+                }
                 try {
-                    ledger.validate();
-                    System.out.println("Valid");
+                    switch (mode) {
+                        case "full" -> ledger.validateFull();
+                        case "deep" -> ledger.validateDeep(null);
+                        default -> ledger.validate();
+                    }
+                    output().println("Valid");
                 } catch (LedgerException e) {
-                    System.out.println("Failed due to: " + e.getReason());
+                    output().println("Failed due to: " + e.getReason());
                 }
 
             }
@@ -159,34 +317,328 @@ public class CommandProcessor {
 
     }
 
+    /**
+     * Build Ledger configuration from the optional name/value pairs following the seed of create-ledger
+     * @param tokens
+     * @return LedgerConfig
+     * @throws CommandProcessorException
+     */
+    private static LedgerConfig parseLedgerOptions(List<String> tokens) throws CommandProcessorException {
+        LedgerConfig config = new LedgerConfig();
+        BlockSealingPolicy policy = config.getSealingPolicy();
+        int maxTransactions = policy.getMaxTransactions();
+        long maxBytes = policy.getMaxBytes();
+        long maxLingerMillis = policy.getMaxLingerMillis();
+        int blocksPerSync = config.getFsyncPolicy().getBlocksPerSync();
+        long maxSyncDelayMillis = config.getFsyncPolicy().getMaxDelayMillis();
+
+        try {
+            for (int i = 6; i < tokens.size(); i += 2) {
+                String value = tokens.get(i + 1);
+                switch (tokens.get(i)) {
+                    case "hash-mode" -> config.setHashMode(HashMode.fromName(value));
+                    case "block-size" -> maxTransactions = Integer.parseInt(value);
+                    case "block-bytes" -> maxBytes = Long.parseLong(value);
+                    case "block-linger-ms" -> maxLingerMillis = Long.parseLong(value);
+                    case "queue-capacity" -> config.setQueueCapacity(parsePositive(value));
+                    case "backpressure" -> config.setBackpressurePolicy(BackpressurePolicy.fromName(value));
+                    case "storage-dir" -> config.setStorageDirectory(value);
+                    case "fsync-blocks" -> blocksPerSync = Integer.parseInt(value);
+                    case "fsync-ms" -> maxSyncDelayMillis = Long.parseLong(value);
+                    case "wal" -> config.setWriteAheadLog(parseSwitch(value));
+                    case "group-commit-us" -> config.setGroupCommitMicros(parseNonNegative(value));
+                    case "snapshot-blocks" -> config.setSnapshotInterval((int) parseNonNegative(value));
+                    case "execution-threads" -> config.setExecutionThreads((int) parseNonNegative(value));
+                    case "shards" -> config.setShards((int) parseNonNegative(value));
+                    case "block-cache" -> config.setBlockCacheSize((int) parseNonNegative(value));
+                    case "metrics" -> config.setMetricsRegistry(parseSwitch(value)
+                            ? new MetricsRegistryImpl() : NoOpMetricsRegistry.INSTANCE);
+                    default -> throw new CommandProcessorException("create-ledger", "Invalid Option: " + tokens.get(i));
+                }
+            }
+            config.setSealingPolicy(new BlockSealingPolicy(maxTransactions, maxBytes, maxLingerMillis));
+            config.setFsyncPolicy(new FsyncPolicy(blocksPerSync, maxSyncDelayMillis));
+        } catch (LedgerException e) {
+            throw new CommandProcessorException("create-ledger", e.getReason());
+        } catch (IllegalArgumentException e) {
+            throw new CommandProcessorException("create-ledger", "Invalid Option Value");
+        }
+        return config;
+    }
+
+    private static void printMetrics(MetricsSnapshot metrics) {
+        for (Map.Entry<String, Long> gauge : metrics.getGauges().entrySet()) {
+            output().println("Gauge: " + gauge.getKey() + " is " + gauge.getValue());
+        }
+        output().println("Transactions Accepted: " + metrics.getAcceptedTransactions());
+        for (Map.Entry<String, Long> rejected : metrics.getRejectedTransactions().entrySet()) {
+            output().println("Transactions Rejected for: " + rejected.getKey() + " is " + rejected.getValue());
+        }
+        for (Map.Entry<MetricsStage, LatencyHistogram> latency : metrics.getLatencies().entrySet()) {
+            LatencyHistogram histogram = latency.getValue();
+            output().println("Latency for: " + latency.getKey().getDisplayName()
+                    + " Count: " + histogram.getCount() + " Mean: " + histogram.getMean() + " ns"
+                    + " P50: " + histogram.getValueAtPercentile(50) + " ns"
+                    + " P99: " + histogram.getValueAtPercentile(99) + " ns"
+                    + " P99.9: " + histogram.getValueAtPercentile(99.9) + " ns"
+                    + " Max: " + histogram.getMax() + " ns");
+        }
+    }
+
+    private static int parseBlockNumber(String command, String value) throws CommandProcessorException {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new CommandProcessorException(command, "Invalid Arguments");
+        }
+    }
+
+    private static int parsePositive(String value) {
+        int number = Integer.parseInt(value);
+        if (number < 1) {
+            throw new IllegalArgumentException(value);
+        }
+        return number;
+    }
+
+    private static long parseNonNegative(String value) {
+        long number = Long.parseLong(value);
+        if (number < 0) {
+            throw new IllegalArgumentException(value);
+        }
+        return number;
+    }
+
+    private static boolean parseSwitch(String value) {
+        return switch (value.toLowerCase()) {
+            case "on" -> true;
+            case "off" -> false;
+            default -> throw new IllegalArgumentException(value);
+        };
+    }
+
+    /**
+     * Build the Transaction of a process-transaction command with its payer and receiver checked
+     * @param tokens
+     * @return Transaction
+     * @throws CommandProcessorException if the payer or receiver does not exist
+     */
+    private static Transaction parseTransaction(List<String> tokens) throws CommandProcessorException {
+        if(!ledger.accountExists(tokens.get(9)) || !ledger.accountExists(tokens.get(11))){
+            throw new CommandProcessorException("process-transaction", "Account Does Not Exist") ;
+        }
+        return buildTransaction(tokens);
+    }
+
+    /**
+     * Build the Transaction of a process-transaction command without checking its payer and receiver
+     * @param tokens
+     * @return Transaction
+     * @throws NumberFormatException if the amount or fee is not a number
+     */
+    static Transaction buildTransaction(List<String> tokens) {
+        return new Transaction(tokens.get(1), Integer.parseInt(tokens.get(3)), Integer.parseInt(tokens.get(5)),
+                tokens.get(7), new Account(tokens.get(9), 0), new Account(tokens.get(11), 0));
+    }
+
+    /**
+     * Line restating a process-transaction command
+     * @param tokens
+     * @return
+     */
+    static String transactionEcho(List<String> tokens) {
+        return "Processing Transaction: " + tokens.get(1) + " " + tokens.get(3) + " " + tokens.get(5) + " "
+                + tokens.get(7) + " " + tokens.get(9) + " " + tokens.get(11) + " ";
+    }
+
+    /**
+     * Split a command into tokens between spaces and quotes, quotes are removed
+     * A token is a quoted string or a character followed by every non-whitespace character after it
+     * @param command
+     * @param tokens cleared and filled with the tokens
+     */
+    static void tokenize(String command, List<String> tokens) {
+        tokens.clear();
+        int length = command.length();
+        int i = 0;
+        while (i < length) {
+            int end;
+            if (command.charAt(i) == '"') {
+                // A quoted token holds at least one character, an unclosed quote is skipped
+                end = closingQuote(command, i);
+                if (end < 0) {
+                    i++;
+                    continue;
+                }
+                end++;
+            } else {
+                end = i + 1;
+                while (end < length && !isWhitespace(command.charAt(end))) {
+                    end++;
+                }
+            }
+            tokens.add(stripQuotes(command, i, end));
+
+            i = end;
+            while (i < length && isWhitespace(command.charAt(i))) {
+                i++;
+            }
+        }
+    }
+
+    private static int closingQuote(String command, int openQuote) {
+        for (int i = openQuote + 1; i < command.length(); i++) {
+            char c = command.charAt(i);
+            if (c == '"' && i > openQuote + 1) {
+                return i;
+            }
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static String stripQuotes(String command, int start, int end) {
+        int quote = command.indexOf('"', start);
+        if (quote < 0 || quote >= end) {
+            return command.substring(start, end);
+        }
+        StringBuilder token = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = command.charAt(i);
+            if (c != '"') {
+                token.append(c);
+            }
+        }
+        return token.toString();
+    }
+
+    /**
+     * Report background work of the current Ledger that failed since the last command
+     */
+    private static void reportBackgroundFailure() {
+        String reason = ledger != null ? ledger.takeBackgroundFailure() : null;
+        if (reason != null) {
+            output().println("Failed due to: " + reason);
+        }
+    }
+
+    private static PrintStream output() {
+        return out != null ? out : System.out;
+    }
+
+    /**
+     * Print a line restating the command being processed, suppressed in throughput mode
+     * @param line
+     */
+    private static void echo(String line) {
+        if (echo) {
+            output().println(line);
+        }
+    }
+
     /**
      * Process File from the command line
+     * @param fileName
      */
     public void processCommandFile(String fileName) {
+        processCommandFile(fileName, false);
+    }
 
-        List<String> tokens = new ArrayList<>();
+    /**
+     * Process File from the command line
+     * @param fileName
+     * @param throughputMode suppress command echo and report the number of lines processed per second
+     */
+    public void processCommandFile(String fileName, boolean throughputMode) {
+        PrintStream console = System.out;
+        out = new PrintStream(new BufferedOutputStream(console, OUTPUT_BUFFER_BYTES), false);
+        echo = !throughputMode;
 
-        AtomicInteger atomicInteger = new AtomicInteger(0);
+        List<Transaction> batch = new ArrayList<>();
+        List<String> batchLines = new ArrayList<>();
+        long startTime = System.nanoTime();
+        int parserCount = Math.max(1, Runtime.getRuntime().availableProcessors() - 2);
 
         //Process all the lines in the file
-        try (Stream<String> stream = Files.lines(Paths.get(fileName))) {
-            stream
-                    .forEach(line -> {
-                        try {
-                            atomicInteger.getAndIncrement();
-                            if (!line.trim().startsWith("#") && !line.trim().isEmpty()) {
-                                processCommand(line);
-                            }
-                        } catch (CommandProcessorException e) {
-                            e.setLineNumber(atomicInteger.get());
-                            System.out.println("Failed due to: " + e.getReason() + " for Command: " + e.getCommand()
-                                    + " On Line Number: " + e.getLineNumber());
+        try (CommandFilePipeline pipeline = new CommandFilePipeline(Paths.get(fileName), parserCount, echo)) {
+            try {
+                CommandFilePipeline.ParsedCommand command;
+                while ((command = pipeline.next()) != null) {
+                    if (isBatchable(command.getTransaction())) {
+                        batch.add(command.getTransaction());
+                        batchLines.add(command.getEchoLine());
+                        if (batch.size() >= ledger.getConfig().getMaxBatchSize()) {
+                            processBatch(batch, batchLines);
                         }
-                    });
+                        continue;
+                    }
+
+                    processBatch(batch, batchLines);
+                    try {
+                        processCommand(command.getLine(), command.getTokens());
+                    } catch (CommandProcessorException e) {
+                        e.setLineNumber(command.getLineNumber());
+                        output().println("Failed due to: " + e.getReason() + " for Command: " + e.getCommand()
+                                + " On Line Number: " + e.getLineNumber());
+                    }
+                }
+            } catch (IOException e) {
+                // Lines read before the failure are still processed
+                processBatch(batch, batchLines);
+                throw e;
+            }
+            processBatch(batch, batchLines);
 
+            if (throughputMode) {
+                int lineCount = pipeline.getLineCount();
+                double seconds = Math.max(System.nanoTime() - startTime, 1) / 1e9;
+                output().println("Processed Lines: " + lineCount + " at " + Math.round(lineCount / seconds)
+                        + " Lines per Second");
+            }
         } catch (IOException e) {
             e.printStackTrace();
+        } finally {
+            out.flush();
+            out = null;
+            echo = true;
         }
 
     }
+
+    /**
+     * Check whether the Transaction of a parsed process-transaction line can join the pending batch
+     * @param transaction
+     * @return false if the line must be processed on its own, which reports any error
+     */
+    private static boolean isBatchable(Transaction transaction) {
+        return transaction != null && ledger != null && ledger.accountExists(transaction.getPayer().getAddress())
+                && ledger.accountExists(transaction.getReceiver().getAddress());
+    }
+
+    /**
+     * Process the pending batch and report each transaction in line order
+     * @param batch
+     * @param batchLines echo line of each transaction
+     */
+    private static void processBatch(List<Transaction> batch, List<String> batchLines) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        reportBackgroundFailure();
+        List<TransactionResult> results = ledger.processTransactions(batch);
+        for (int i = 0; i < results.size(); i++) {
+            echo(batchLines.get(i));
+            if (!results.get(i).isAccepted()) {
+                output().println("Failed due to: " + results.get(i).getReason());
+            }
+        }
+        batch.clear();
+        batchLines.clear();
+    }
 }
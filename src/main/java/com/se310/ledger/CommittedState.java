@@ -0,0 +1,77 @@
+package com.se310.ledger;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CommittedState class implementation representing an immutable view of the account state of a sealed block
+ *
+ * A new view is published on every seal. Sealed account state is never modified, so readers holding a
+ * view see one consistent height without locking. The balance map is built on first request and then
+ * shared by every reader of the same view.
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public final class CommittedState {
+
+    private final int blockNumber;
+    private final String hash;
+    private final Map<String, Account> accounts;
+    private volatile Map<String, Integer> balances;
+
+    /**
+     * CommittedState Constructor
+     * @param block sealed block
+     */
+    public CommittedState(Block block) {
+        this.blockNumber = block.getBlockNumber();
+        this.hash = block.getHash();
+        this.accounts = block.getAccountBalanceMap();
+    }
+
+    /**
+     * Getter method for the number of the sealed block
+     * @return
+     */
+    public int getBlockNumber() {
+        return blockNumber;
+    }
+
+    /**
+     * Getter method for the Hash of the sealed block
+     * @return
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * Get the balance of an Account
+     * @param address
+     * @return Integer or Null if the Account does not exist
+     */
+    public Integer getBalance(String address) {
+        Account account = accounts.get(address);
+        return account == null ? null : account.getBalance();
+    }
+
+    /**
+     * Get a read only map of every Account address to its balance
+     * @return
+     */
+    public Map<String, Integer> getBalances() {
+        Map<String, Integer> current = balances;
+        if (current == null) {
+            // Racing readers may both build it, either copy is the same
+            Map<String, Integer> map = new HashMap<>(accounts.size() * 2);
+            for (Account account : accounts.values()) {
+                map.put(account.getAddress(), account.getBalance());
+            }
+            current = Collections.unmodifiableMap(map);
+            balances = current;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,68 @@
+package com.se310.ledger;
+
+/**
+ * FsyncPolicy class implementation deciding when appended blocks are forced to disk
+ *
+ * Blocks are synced once blocksPerSync blocks are waiting or once the oldest waiting block is
+ * maxDelayMillis old, whichever comes first. A maxDelayMillis of 0 disables the time rule.
+ * The default syncs every block.
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public class FsyncPolicy {
+
+    private final int blocksPerSync;
+    private final long maxDelayMillis;
+
+    /**
+     * Default policy syncing every block
+     */
+    public FsyncPolicy() {
+        this(1, 0);
+    }
+
+    /**
+     * FsyncPolicy Constructor
+     * @param blocksPerSync
+     * @param maxDelayMillis
+     */
+    public FsyncPolicy(int blocksPerSync, long maxDelayMillis) {
+        if (blocksPerSync < 1 || maxDelayMillis < 0) {
+            throw new IllegalArgumentException("Fsync Limits Are Out of Range");
+        }
+        this.blocksPerSync = blocksPerSync;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * Getter method for the number of blocks grouped into one sync
+     * @return
+     */
+    public int getBlocksPerSync() {
+        return blocksPerSync;
+    }
+
+    /**
+     * Getter method for the longest time a block may wait for a sync, 0 if unlimited
+     * @return
+     */
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    /**
+     * Check if waiting blocks must be synced now
+     * @param unsyncedBlocks
+     * @param oldestUnsyncedNanos
+     * @param nowNanos
+     * @return
+     */
+    public boolean isSyncDue(int unsyncedBlocks, long oldestUnsyncedNanos, long nowNanos) {
+        if (unsyncedBlocks == 0) {
+            return false;
+        }
+        return unsyncedBlocks >= blocksPerSync
+                || (maxDelayMillis > 0 && nowNanos - oldestUnsyncedNanos >= maxDelayMillis * 1_000_000L);
+    }
+}
@@ -0,0 +1,45 @@
+package com.se310.ledger;
+
+import com.se310.ledger.interfaces.HashGenerator;
+import com.se310.ledger.services.BinaryMerkleHashGenerator;
+import com.se310.ledger.services.MerkleHashGenerator;
+
+/**
+ * HashMode enumeration representing the Merkle engine used to seal blocks
+ *
+ * LEGACY produces the same roots as every ledger created before binary hashing was introduced.
+ * BINARY is faster and allocates less but produces different roots, see BinaryMerkleHashGenerator.
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public enum HashMode {
+    LEGACY,
+    BINARY;
+
+    /**
+     * Create HashGenerator for this mode
+     * @return HashGenerator
+     */
+    public HashGenerator createHashGenerator() {
+        return switch (this) {
+            case LEGACY -> new MerkleHashGenerator();
+            case BINARY -> new BinaryMerkleHashGenerator();
+        };
+    }
+
+    /**
+     * Look up HashMode by its command name
+     * @param name
+     * @return HashMode
+     * @throws LedgerException
+     */
+    public static HashMode fromName(String name) throws LedgerException {
+        for (HashMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(name)) {
+                return mode;
+            }
+        }
+        throw new LedgerException("Create Ledger", "Unknown Hash Mode: " + name);
+    }
+}
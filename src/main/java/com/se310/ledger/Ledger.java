@@ -2,7 +2,15 @@ package com.se310.ledger;
 
 import com.se310.ledger.interfaces.*;
 import com.se310.ledger.services.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Refactored Ledger Class following SOLID principles
@@ -13,6 +21,8 @@ import java.util.*;
  * ISP: Depends only on interfaces it needs
  * DIP: Depends on abstractions, not concrete implementations
  *
+ * getInstance returns the process-wide Ledger, a LedgerRegistry hosts any number of independent Ledgers
+ *
  * @author  Sergey L. Sundukovskiy
  * @version 2.0
  */
@@ -20,12 +30,17 @@ public class Ledger {
     private String name;
     private String description;
     private String seed;
+    private final LedgerConfig config;
     
     // Dependencies injected through constructor (DIP)
     private final BlockchainRepository blockchainRepository;
     private final AccountService accountService;
     private final BlockchainValidator blockchainValidator;
-    private final TransactionProcessor transactionProcessor;
+    private final AbstractTransactionProcessor transactionProcessor;
+    private ScheduledExecutorService sealingScheduler;
+    private volatile TransactionSequencer transactionSequencer;
+    private final AtomicReference<String> backgroundFailure = new AtomicReference<>();
+    private boolean closed;
 
     private static Ledger ledger;
 
@@ -37,49 +52,186 @@ public class Ledger {
      * @return
      */
     public static synchronized Ledger getInstance(String name, String description, String seed) {
+        try {
+            return getInstance(name, description, seed, new LedgerConfig());
+        } catch (LedgerException e) {
+            throw new IllegalStateException(e.getReason(), e);
+        }
+    }
+
+    /**
+     * Create singleton of the Ledger with dependency injection using the given configuration
+     * @param name
+     * @param description
+     * @param seed
+     * @param config
+     * @return
+     * @throws LedgerException if the block log cannot be opened
+     */
+    public static synchronized Ledger getInstance(String name, String description, String seed, LedgerConfig config)
+            throws LedgerException {
         if (ledger == null) {
-            // Initialize dependencies (DIP - Dependency Injection)
-            BlockchainRepository repository = new BlockchainRepositoryImpl();
-            Block genesisBlock = new Block(1, "");
-            genesisBlock.addAccount("master", new Account("master", Integer.MAX_VALUE));
-            
-            AccountService accountService = new AccountServiceImpl(repository, genesisBlock);
-            TransactionValidator validator = new TransactionValidatorImpl();
-            BlockchainValidator blockchainValidator = new BlockchainValidatorImpl(repository);
-            HashGenerator hashGenerator = new MerkleHashGenerator();
-            TransactionProcessor processor = new TransactionProcessor(validator, repository, hashGenerator, seed, genesisBlock);
-            
-            ledger = new Ledger(name, description, seed, repository, accountService, validator, blockchainValidator, processor);
+            ledger = createLedger(name, description, seed, config);
         }
         return ledger;
     }
 
+    /**
+     * Initialize dependencies (DIP - Dependency Injection) and create a new Ledger
+     * @param name
+     * @param description
+     * @param seed
+     * @param config
+     * @return
+     * @throws LedgerException if the block log cannot be opened
+     */
+    static Ledger createLedger(String name, String description, String seed, LedgerConfig config)
+            throws LedgerException {
+        if (config.getShards() > 0 && config.getSealingPolicy().getMaxBytes() > 0) {
+            throw new LedgerException("Create Ledger", "Sharded Processing Does Not Support Block Bytes");
+        }
+        if (config.getShards() > 0 && config.getExecutionThreads() > 0) {
+            throw new LedgerException("Create Ledger", "Sharded Processing Does Not Use Execution Threads");
+        }
+        if (config.getBlockCacheSize() > 0 && config.getStorageDirectory() == null) {
+            throw new LedgerException("Create Ledger", "Block Cache Requires a Storage Directory");
+        }
+        BlockchainRepository repository = createRepository(config);
+
+        // Continue after the last block recovered from storage, or start a new chain
+        Block lastBlock = repository.getLastBlock();
+        Block uncommittedBlock;
+        if (lastBlock != null) {
+            uncommittedBlock = new Block(lastBlock.getBlockNumber() + 1, lastBlock);
+        } else {
+            uncommittedBlock = new Block(1, "");
+            uncommittedBlock.addAccount("master", new Account("master", Integer.MAX_VALUE));
+        }
+
+        MetricsRegistry metricsRegistry = config.getMetricsRegistry();
+        TransactionValidator validator = new TransactionValidatorImpl(metricsRegistry);
+        HashGenerator hashGenerator = config.getHashMode().createHashGenerator();
+        BlockchainValidator blockchainValidator = new BlockchainValidatorImpl(repository, hashGenerator, seed);
+        AbstractTransactionProcessor processor;
+        if (config.getShards() > 0) {
+            processor = new ShardedTransactionProcessor(config.getShards(), validator, repository, hashGenerator,
+                    seed, uncommittedBlock, config.getSealingPolicy());
+        } else {
+            TransactionProcessor sequentialProcessor = new TransactionProcessor(validator, repository, hashGenerator,
+                    seed, uncommittedBlock, config.getSealingPolicy());
+            if (config.getExecutionThreads() > 0) {
+                sequentialProcessor.setParallelExecutor(
+                        new ParallelTransactionExecutor(config.getExecutionThreads(), validator));
+            }
+            processor = sequentialProcessor;
+        }
+        AccountService accountService = new AccountServiceImpl(repository, processor);
+        processor.setMetricsRegistry(metricsRegistry);
+        metricsRegistry.registerGauge("Chain Height", repository::getBlockCount);
+        metricsRegistry.registerGauge("Account Count", processor::getAccountCount);
+        if (repository instanceof FileBlockchainRepository fileRepository && fileRepository.getBlockCache() != null) {
+            BlockCache blockCache = fileRepository.getBlockCache();
+            metricsRegistry.registerGauge("Cached Blocks", blockCache::size);
+            metricsRegistry.registerGauge("Block Cache Hits", blockCache::getHits);
+            metricsRegistry.registerGauge("Block Cache Misses", blockCache::getMisses);
+        }
+        if (repository instanceof FileBlockchainRepository fileRepository && fileRepository.getSnapshotStore() != null) {
+            metricsRegistry.registerGauge("Failed Snapshots", fileRepository.getSnapshotStore()::getFailedSnapshots);
+        }
+
+        // Bring back the work accepted into the uncommitted block before the last shutdown
+        if (config.getStorageDirectory() != null && config.isWriteAheadLog()) {
+            try {
+                processor.recover(new WriteAheadLog(Paths.get(config.getStorageDirectory(), "transactions.wal"),
+                        config.getGroupCommitMicros()));
+            } catch (IOException | UncheckedIOException e) {
+                repository.close();
+                throw new LedgerException("Create Ledger", "Storage Is Not Accessible: " + e.getMessage());
+            }
+        }
+
+        Ledger newLedger = new Ledger(name, description, seed, config, repository, accountService, validator,
+                blockchainValidator, processor);
+        newLedger.startSealingTimer();
+        return newLedger;
+    }
+
+    private static BlockchainRepository createRepository(LedgerConfig config) throws LedgerException {
+        if (config.getStorageDirectory() == null) {
+            return new BlockchainRepositoryImpl();
+        }
+        try {
+            return new FileBlockchainRepository(Paths.get(config.getStorageDirectory()), config.getSegmentBytes(),
+                    config.getFsyncPolicy(), config.getSnapshotInterval(), config.getBlockCacheSize());
+        } catch (IOException | UncheckedIOException e) {
+            throw new LedgerException("Create Ledger", "Storage Is Not Accessible: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Start sealing lingering blocks in the background when the sealing policy has a time limit
+     */
+    private void startSealingTimer() {
+        long maxLingerMillis = config.getSealingPolicy().getMaxLingerMillis();
+        if (maxLingerMillis == 0) {
+            return;
+        }
+
+        sealingScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-sealer-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long period = Math.max(1, maxLingerMillis / 2);
+        sealingScheduler.scheduleAtFixedRate(() -> {
+            try {
+                transactionProcessor.sealExpiredBlock();
+            } catch (LedgerException e) {
+                backgroundFailure.set(e.getReason());
+            } catch (RuntimeException e) {
+                // A task that throws is never run again, keep sealing and report the failure
+                backgroundFailure.set("Block Not Sealed: " + e.getMessage());
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
     /**
      * Private Ledger Constructor with dependency injection (DIP)
      * @param name
      * @param description
      * @param seed
+     * @param config
      * @param blockchainRepository
      * @param accountService
      * @param transactionValidator
      * @param blockchainValidator
      * @param transactionProcessor
      */
-    private Ledger(String name, String description, String seed,
+    private Ledger(String name, String description, String seed, LedgerConfig config,
                   BlockchainRepository blockchainRepository,
                   AccountService accountService,
                   TransactionValidator transactionValidator,
                   BlockchainValidator blockchainValidator,
-                  TransactionProcessor transactionProcessor) {
+                  AbstractTransactionProcessor transactionProcessor) {
         this.name = name;
         this.description = description;
         this.seed = seed;
+        this.config = config;
         this.blockchainRepository = blockchainRepository;
         this.accountService = accountService;
         this.blockchainValidator = blockchainValidator;
         this.transactionProcessor = transactionProcessor;
     }
 
+    /**
+     * Getter method for the configuration the Ledger was created with
+     * @return LedgerConfig
+     */
+    public LedgerConfig getConfig() {
+        return config;
+    }
+
     /**
      * Getter method for the name of the Ledger
      * @return
@@ -143,10 +295,56 @@ public class Ledger {
      * @return String representing transaction id
      * @throws LedgerException
      */
-    public synchronized String processTransaction(Transaction transaction) throws LedgerException {
+    public String processTransaction(Transaction transaction) throws LedgerException {
         return transactionProcessor.processTransaction(transaction);
     }
 
+    /**
+     * Method enqueueing a transaction for the single-writer sequencer without blocking on the processor lock
+     * The sequencer thread is started on first use
+     * @param transaction
+     * @return CompletableFuture completed with the transaction id or exceptionally with a LedgerException
+     * @throws LedgerException if the queue is full and the backpressure policy is FAIL
+     */
+    public CompletableFuture<String> submitTransaction(Transaction transaction) throws LedgerException {
+        return getTransactionSequencer().submit(transaction);
+    }
+
+    private TransactionSequencer getTransactionSequencer() {
+        TransactionSequencer sequencer = transactionSequencer;
+        if (sequencer == null) {
+            synchronized (this) {
+                sequencer = transactionSequencer;
+                if (sequencer == null) {
+                    sequencer = new TransactionSequencer(transactionProcessor, config.getQueueCapacity(),
+                            config.getMaxBatchSize(), config.getBackpressurePolicy(), name);
+                    transactionSequencer = sequencer;
+                }
+            }
+        }
+        return sequencer;
+    }
+
+    /**
+     * Method handling a batch of transactions with a single lock acquisition (SRP - delegates to TransactionProcessor)
+     * Rejected transactions are reported in the results and do not stop the rest of the batch
+     * With execution threads configured, large batches are executed speculatively in parallel first
+     * @param transactions
+     * @return List of TransactionResult in batch order
+     */
+    public List<TransactionResult> processTransactions(List<Transaction> transactions) {
+        return transactionProcessor.processTransactions(transactions);
+    }
+
+    /**
+     * Check if an Account exists, committed or not (SRP - delegates to AccountService)
+     * @param address
+     * @return
+     */
+    public boolean accountExists(String address) {
+        return accountService.accountExists(address);
+    }
+
     /**
      * Get Account balance by address (SRP - delegates to AccountService)
      * @param address
@@ -165,6 +363,29 @@ public class Ledger {
         return accountService.getAllAccountBalances();
     }
 
+    /**
+     * Get Account balance as of a committed Block (SRP - delegates to AccountService)
+     * @param address
+     * @param blockNumber
+     * @return Integer representing balance of the Account after the Block was sealed
+     * @throws LedgerException
+     */
+    public int getAccountBalanceAt(String address, int blockNumber) throws LedgerException {
+        return accountService.getAccountBalanceAt(address, blockNumber);
+    }
+
+    /**
+     * Get balances of many Accounts as of one committed Block (SRP - delegates to AccountService)
+     * Accounts that did not exist yet at that Block are left out
+     * @param addresses
+     * @param blockNumber
+     * @return Map representing Accounts and balances
+     * @throws LedgerException
+     */
+    public Map<String,Integer> getAccountBalancesAt(Collection<String> addresses, int blockNumber) throws LedgerException {
+        return accountService.getAccountBalancesAt(addresses, blockNumber);
+    }
+
     /**
      * Get Block by id (SRP - delegates to BlockchainRepository)
      * @param blockNumber
@@ -187,6 +408,25 @@ public class Ledger {
         return blockchainRepository.getTransaction(transactionId);
     }
 
+    /**
+     * Get a page of the committed transactions an Account paid or received (SRP - delegates to BlockchainRepository)
+     * Pages end at a block boundary, the next page starts at the block after the last transaction returned
+     * @param address
+     * @param fromBlock first block to include
+     * @param limit maximum number of transactions, exceeded only by a single block holding more
+     * @return List of Transaction in chain order
+     * @throws LedgerException
+     */
+    public List<Transaction> getTransactionsForAccount(String address, int fromBlock, int limit) throws LedgerException {
+        if (limit < 1) {
+            throw new LedgerException("Get Account Transactions", "Limit Must Be Positive");
+        }
+        if (!accountService.accountExists(address)) {
+            throw new LedgerException("Get Account Transactions", "Account Does Not Exist");
+        }
+        return blockchainRepository.getTransactionsForAccount(address, fromBlock, limit);
+    }
+
     /**
      * Get number of Blocks in the Blockchain (SRP - delegates to BlockchainRepository)
      * @return int representing number of blocks committed to Blockchain
@@ -197,14 +437,66 @@ public class Ledger {
 
     /**
      * Method for validating Blockchain (SRP - delegates to BlockchainValidator)
-     * Check each block for Hash consistency
-     * Check each block for Transaction count
+     * Check each block sealed since the last validation for Hash consistency
+     * Check each of those blocks against the policy that sealed it
      * Check account balances against the total
      */
     public void validate() throws LedgerException {
         blockchainValidator.validate();
     }
 
+    /**
+     * Method for re-validating the whole Blockchain from the first block (SRP - delegates to BlockchainValidator)
+     */
+    public void validateFull() throws LedgerException {
+        blockchainValidator.validateFull();
+    }
+
+    /**
+     * Method for re-validating the whole Blockchain and recomputing the Merkle root of every block
+     * from its transactions, in parallel across cores (SRP - delegates to BlockchainValidator)
+     * @param listener notified as ranges of blocks are verified, may be null
+     */
+    public void validateDeep(VerificationListener listener) throws LedgerException {
+        blockchainValidator.validateDeep(listener);
+    }
+
+    /**
+     * Get a snapshot of the metrics of the Ledger (SRP - delegates to MetricsRegistry)
+     * @return MetricsSnapshot
+     * @throws LedgerException if the Ledger was created without metrics
+     */
+    public MetricsSnapshot getMetrics() throws LedgerException {
+        if (!config.getMetricsRegistry().isEnabled()) {
+            throw new LedgerException("Get Stats", "Metrics Are Not Enabled");
+        }
+        return config.getMetricsRegistry().snapshot();
+    }
+
+    /**
+     * Forget the latencies and transaction outcomes recorded so far (SRP - delegates to MetricsRegistry)
+     * @throws LedgerException if the Ledger was created without metrics
+     */
+    public void resetMetrics() throws LedgerException {
+        if (!config.getMetricsRegistry().isEnabled()) {
+            throw new LedgerException("Reset Stats", "Metrics Are Not Enabled");
+        }
+        config.getMetricsRegistry().reset();
+    }
+
+    /**
+     * Take the reason the latest background seal or snapshot failed, clearing it
+     * @return String or Null if no background work failed since the last call
+     */
+    public String takeBackgroundFailure() {
+        String reason = backgroundFailure.getAndSet(null);
+        if (reason == null && blockchainRepository instanceof FileBlockchainRepository fileRepository
+                && fileRepository.getSnapshotStore() != null) {
+            reason = fileRepository.getSnapshotStore().takeFailure();
+        }
+        return reason;
+    }
+
     /**
      * Helper method for CommandProcessor (SRP - delegates to TransactionProcessor)
      * @return current block we are working with
@@ -214,21 +506,41 @@ public class Ledger {
     }
 
     /**
-     * Helper method allowing reset the state of the Ledger
+     * Stop background work started by the Ledger and release its storage, closing it again does nothing
+     */
+    public synchronized void close(){
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (transactionSequencer != null) {
+            transactionSequencer.close();
+            transactionSequencer = null;
+        }
+        if (sealingScheduler != null) {
+            sealingScheduler.shutdownNow();
+            sealingScheduler = null;
+        }
+        transactionProcessor.close();
+        blockchainRepository.close();
+    }
+
+    /**
+     * Helper method allowing reset the state of the singleton Ledger
+     * A Ledger backed by storage is reopened from its block log,
+     * Ledgers hosted by a LedgerRegistry are reset with LedgerRegistry.resetLedger
      */
     public synchronized void reset(){
-        // Reset all services
-        BlockchainRepository repository = new BlockchainRepositoryImpl();
-        Block genesisBlock = new Block(1, "");
-        genesisBlock.addAccount("master", new Account("master", Integer.MAX_VALUE));
-        
-        AccountService accountService = new AccountServiceImpl(repository, genesisBlock);
-        TransactionValidator validator = new TransactionValidatorImpl();
-        BlockchainValidator blockchainValidator = new BlockchainValidatorImpl(repository);
-        HashGenerator hashGenerator = new MerkleHashGenerator();
-        TransactionProcessor processor = new TransactionProcessor(validator, repository, hashGenerator, this.seed, genesisBlock);
-        
+        if (ledger != this) {
+            throw new IllegalStateException("Ledger Is Not the Singleton");
+        }
+        close();
+
         // Reinitialize ledger with new services
-        ledger = new Ledger(this.name, this.description, this.seed, repository, accountService, validator, blockchainValidator, processor);
+        try {
+            ledger = createLedger(this.name, this.description, this.seed, this.config);
+        } catch (LedgerException e) {
+            throw new IllegalStateException(e.getReason(), e);
+        }
     }
 }
@@ -0,0 +1,274 @@
+package com.se310.ledger;
+
+import com.se310.ledger.interfaces.MetricsRegistry;
+import com.se310.ledger.services.NoOpMetricsRegistry;
+
+/**
+ * LedgerConfig class implementation holding the options a Ledger is created with
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public class LedgerConfig {
+
+    private HashMode hashMode = HashMode.LEGACY;
+    private BlockSealingPolicy sealingPolicy = new BlockSealingPolicy();
+    private int queueCapacity = 65536;
+    private int maxBatchSize = 1024;
+    private BackpressurePolicy backpressurePolicy = BackpressurePolicy.BLOCK;
+    private String storageDirectory;
+    private long segmentBytes = 64L * 1024 * 1024;
+    private FsyncPolicy fsyncPolicy = new FsyncPolicy();
+    private boolean writeAheadLog = true;
+    private long groupCommitMicros;
+    private int snapshotInterval = 1000;
+    private int executionThreads;
+    private int shards;
+    private int blockCacheSize;
+    private MetricsRegistry metricsRegistry = NoOpMetricsRegistry.INSTANCE;
+
+    /**
+     * Getter method for the hash mode
+     * @return
+     */
+    public HashMode getHashMode() {
+        return hashMode;
+    }
+
+    /**
+     * Setter method for the hash mode
+     * @param hashMode
+     */
+    public void setHashMode(HashMode hashMode) {
+        this.hashMode = hashMode;
+    }
+
+    /**
+     * Getter method for the block sealing policy
+     * @return
+     */
+    public BlockSealingPolicy getSealingPolicy() {
+        return sealingPolicy;
+    }
+
+    /**
+     * Setter method for the block sealing policy
+     * @param sealingPolicy
+     */
+    public void setSealingPolicy(BlockSealingPolicy sealingPolicy) {
+        this.sealingPolicy = sealingPolicy;
+    }
+
+    /**
+     * Getter method for the capacity of the ingestion queue
+     * @return
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Setter method for the capacity of the ingestion queue
+     * @param queueCapacity
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Getter method for the largest batch the sequencer applies at once
+     * @return
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Setter method for the largest batch the sequencer applies at once
+     * @param maxBatchSize
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Getter method for the behavior when the ingestion queue is full
+     * @return
+     */
+    public BackpressurePolicy getBackpressurePolicy() {
+        return backpressurePolicy;
+    }
+
+    /**
+     * Setter method for the behavior when the ingestion queue is full
+     * @param backpressurePolicy
+     */
+    public void setBackpressurePolicy(BackpressurePolicy backpressurePolicy) {
+        this.backpressurePolicy = backpressurePolicy;
+    }
+
+    /**
+     * Getter method for the directory holding the block log, null if blocks are kept in memory
+     * @return
+     */
+    public String getStorageDirectory() {
+        return storageDirectory;
+    }
+
+    /**
+     * Setter method for the directory holding the block log
+     * @param storageDirectory
+     */
+    public void setStorageDirectory(String storageDirectory) {
+        this.storageDirectory = storageDirectory;
+    }
+
+    /**
+     * Getter method for the size at which the block log rolls over to a new segment
+     * @return
+     */
+    public long getSegmentBytes() {
+        return segmentBytes;
+    }
+
+    /**
+     * Setter method for the size at which the block log rolls over to a new segment
+     * @param segmentBytes
+     */
+    public void setSegmentBytes(long segmentBytes) {
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Getter method for the policy deciding when the block log is forced to disk
+     * @return
+     */
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    /**
+     * Setter method for the policy deciding when the block log is forced to disk
+     * @param fsyncPolicy
+     */
+    public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    /**
+     * Getter method for whether accepted transactions are logged before they are acknowledged,
+     * only used when the Ledger has a storage directory
+     * @return
+     */
+    public boolean isWriteAheadLog() {
+        return writeAheadLog;
+    }
+
+    /**
+     * Setter method for whether accepted transactions are logged before they are acknowledged
+     * @param writeAheadLog
+     */
+    public void setWriteAheadLog(boolean writeAheadLog) {
+        this.writeAheadLog = writeAheadLog;
+    }
+
+    /**
+     * Getter method for how long a transaction log sync waits for other transactions to join it
+     * @return
+     */
+    public long getGroupCommitMicros() {
+        return groupCommitMicros;
+    }
+
+    /**
+     * Setter method for how long a transaction log sync waits for other transactions to join it
+     * @param groupCommitMicros
+     */
+    public void setGroupCommitMicros(long groupCommitMicros) {
+        this.groupCommitMicros = groupCommitMicros;
+    }
+
+    /**
+     * Getter method for the number of blocks between account-state snapshots, 0 if disabled,
+     * only used when the Ledger has a storage directory
+     * @return
+     */
+    public int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    /**
+     * Setter method for the number of blocks between account-state snapshots
+     * @param snapshotInterval
+     */
+    public void setSnapshotInterval(int snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Getter method for the number of threads executing large batches speculatively, 0 if batches
+     * are executed sequentially
+     * @return
+     */
+    public int getExecutionThreads() {
+        return executionThreads;
+    }
+
+    /**
+     * Setter method for the number of threads executing large batches speculatively
+     * @param executionThreads
+     */
+    public void setExecutionThreads(int executionThreads) {
+        this.executionThreads = executionThreads;
+    }
+
+    /**
+     * Getter method for the number of shards the account space is partitioned across, 0 if
+     * transactions are processed unsharded
+     * @return
+     */
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * Setter method for the number of shards the account space is partitioned across
+     * @param shards
+     */
+    public void setShards(int shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * Getter method for the number of sealed blocks kept in heap besides the last one, 0 if older
+     * blocks are decoded on every read, only used when the Ledger has a storage directory
+     * @return
+     */
+    public int getBlockCacheSize() {
+        return blockCacheSize;
+    }
+
+    /**
+     * Setter method for the number of sealed blocks kept in heap besides the last one
+     * @param blockCacheSize
+     */
+    public void setBlockCacheSize(int blockCacheSize) {
+        this.blockCacheSize = blockCacheSize;
+    }
+
+    /**
+     * Getter method for the registry the Ledger records metrics to, metrics are disabled by default
+     * @return
+     */
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    /**
+     * Setter method for the registry the Ledger records metrics to
+     * @param metricsRegistry NoOpMetricsRegistry.INSTANCE to disable metrics
+     */
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+}
@@ -0,0 +1,118 @@
+package com.se310.ledger;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * LedgerRegistry class implementation hosting many independent Ledgers in one process, looked up by name
+ *
+ * Each Ledger has its own repository, TransactionProcessor and background threads, so Ledgers never
+ * share a lock and independent Ledgers run on separate cores. Two Ledgers may not share a storage
+ * directory. The registry is independent of the process-wide singleton returned by Ledger.getInstance.
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public class LedgerRegistry {
+
+    private final Map<String, Ledger> ledgers = new ConcurrentHashMap<>();
+
+    /**
+     * Create a Ledger and register it under its name
+     * @param name
+     * @param description
+     * @param seed
+     * @param config
+     * @return Ledger
+     * @throws LedgerException if the name or storage directory is taken or the storage cannot be opened
+     */
+    public synchronized Ledger createLedger(String name, String description, String seed, LedgerConfig config)
+            throws LedgerException {
+        if (ledgers.containsKey(name)) {
+            throw new LedgerException("Create Ledger", "Ledger Already Exists");
+        }
+        if (config.getStorageDirectory() != null) {
+            Path directory = Paths.get(config.getStorageDirectory()).toAbsolutePath().normalize();
+            for (Ledger ledger : ledgers.values()) {
+                String otherDirectory = ledger.getConfig().getStorageDirectory();
+                if (otherDirectory != null
+                        && Paths.get(otherDirectory).toAbsolutePath().normalize().equals(directory)) {
+                    throw new LedgerException("Create Ledger", "Storage Directory Is In Use");
+                }
+            }
+        }
+
+        Ledger ledger = Ledger.createLedger(name, description, seed, config);
+        ledgers.put(name, ledger);
+        return ledger;
+    }
+
+    /**
+     * Get a registered Ledger by name
+     * @param name
+     * @return Ledger
+     * @throws LedgerException if no Ledger has that name
+     */
+    public Ledger getLedger(String name) throws LedgerException {
+        Ledger ledger = ledgers.get(name);
+        if (ledger == null) {
+            throw new LedgerException("Get Ledger", "Ledger Does Not Exist");
+        }
+        return ledger;
+    }
+
+    /**
+     * Getter method for the names of the registered Ledgers in order
+     * @return
+     */
+    public Set<String> getLedgerNames() {
+        return new TreeSet<>(ledgers.keySet());
+    }
+
+    /**
+     * Close a Ledger and reopen it from its storage, a Ledger without storage starts a new chain
+     * If the storage cannot be reopened the closed Ledger stays registered, so the reset can be retried
+     * @param name
+     * @return Ledger replacing the closed one
+     * @throws LedgerException if no Ledger has that name or its storage cannot be opened
+     */
+    public synchronized Ledger resetLedger(String name) throws LedgerException {
+        Ledger ledger = getLedger(name);
+        LedgerConfig config = ledger.getConfig();
+        Ledger replacement;
+        if (config.getStorageDirectory() == null) {
+            replacement = Ledger.createLedger(name, ledger.getDescription(), ledger.getSeed(), config);
+            ledger.close();
+        } else {
+            // The replacement reopens the storage, which the closed Ledger must release first
+            ledger.close();
+            replacement = Ledger.createLedger(name, ledger.getDescription(), ledger.getSeed(), config);
+        }
+        ledgers.put(name, replacement);
+        return replacement;
+    }
+
+    /**
+     * Close a Ledger and remove it from the registry
+     * @param name
+     * @throws LedgerException if no Ledger has that name
+     */
+    public synchronized void closeLedger(String name) throws LedgerException {
+        getLedger(name).close();
+        ledgers.remove(name);
+    }
+
+    /**
+     * Close every registered Ledger
+     */
+    public synchronized void closeAll() {
+        for (Ledger ledger : ledgers.values()) {
+            ledger.close();
+        }
+        ledgers.clear();
+    }
+}
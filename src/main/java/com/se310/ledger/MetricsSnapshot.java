@@ -0,0 +1,66 @@
+package com.se310.ledger;
+
+import com.se310.ledger.services.LatencyHistogram;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * MetricsSnapshot class implementation representing the metrics of a Ledger at one point in time
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public class MetricsSnapshot {
+
+    private final Map<MetricsStage, LatencyHistogram> latencies;
+    private final long acceptedTransactions;
+    private final Map<String, Long> rejectedTransactions;
+    private final Map<String, Long> gauges;
+
+    /**
+     * MetricsSnapshot Constructor
+     * @param latencies copy of the latency histogram of each stage that was recorded
+     * @param acceptedTransactions
+     * @param rejectedTransactions number of rejected transactions by rejection reason
+     * @param gauges gauge values by gauge name
+     */
+    public MetricsSnapshot(Map<MetricsStage, LatencyHistogram> latencies, long acceptedTransactions,
+                           Map<String, Long> rejectedTransactions, Map<String, Long> gauges) {
+        this.latencies = Collections.unmodifiableMap(latencies);
+        this.acceptedTransactions = acceptedTransactions;
+        this.rejectedTransactions = Collections.unmodifiableMap(rejectedTransactions);
+        this.gauges = Collections.unmodifiableMap(gauges);
+    }
+
+    /**
+     * Getter method for the latency histograms in nanoseconds
+     * @return
+     */
+    public Map<MetricsStage, LatencyHistogram> getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * Getter method for the number of accepted transactions
+     * @return
+     */
+    public long getAcceptedTransactions() {
+        return acceptedTransactions;
+    }
+
+    /**
+     * Getter method for the number of rejected transactions by rejection reason
+     * @return
+     */
+    public Map<String, Long> getRejectedTransactions() {
+        return rejectedTransactions;
+    }
+
+    /**
+     * Getter method for the gauge values by gauge name
+     * @return
+     */
+    public Map<String, Long> getGauges() {
+        return gauges;
+    }
+}
@@ -0,0 +1,30 @@
+package com.se310.ledger;
+
+/**
+ * MetricsStage enumeration representing the stages of transaction processing whose latency is recorded
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public enum MetricsStage {
+    VALIDATION("Validation"),
+    DUPLICATE_CHECK("Duplicate Check"),
+    EXECUTION("Execution"),
+    MERKLE_HASH("Merkle Hash"),
+    ACCOUNT_REPLICATION("Account Replication"),
+    BLOCK_STORE("Block Store");
+
+    private final String displayName;
+
+    MetricsStage(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Getter method for the name the stage is reported under
+     * @return
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,304 @@
+package com.se310.ledger;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * PersistentAccountMap class implementation representing an immutable Account map with structural sharing
+ * Implemented as a hash array mapped trie (HAMT), adding an account copies only the path to its slot
+ * so successive blocks share every account they did not touch
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public final class PersistentAccountMap extends AbstractMap<String, Account> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int MAX_DEPTH = 8;
+
+    private static final PersistentAccountMap EMPTY = new PersistentAccountMap(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentAccountMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Get the empty map
+     * @return
+     */
+    public static PersistentAccountMap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Get Account for the given address
+     * @param key
+     * @return Account or Null
+     */
+    @Override
+    public Account get(Object key) {
+        if (root == null || !(key instanceof String address)) {
+            return null;
+        }
+        return root.find(0, hash(address), address);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Create a new map with the given account added or replaced, leaving this map unchanged
+     * @param address
+     * @param account
+     * @return PersistentAccountMap
+     */
+    public PersistentAccountMap with(String address, Account account) {
+        boolean[] added = new boolean[1];
+        Node newRoot = (root == null ? BitmapIndexedNode.EMPTY : root).put(0, hash(address), address, account, added);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentAccountMap(newRoot, added[0] ? size + 1 : size);
+    }
+
+    @Override
+    public Set<Entry<String, Account>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Account>> iterator() {
+                return new EntryIterator(root);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private static int hash(String address) {
+        int h = address.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private interface Node {
+        Account find(int shift, int hash, String key);
+        Node put(int shift, int hash, String key, Account value, boolean[] added);
+        Object[] array();
+    }
+
+    /**
+     * Trie node holding up to 32 slots, a slot is either a key/account pair or a child node (null key)
+     */
+    private static final class BitmapIndexedNode implements Node {
+
+        static final BitmapIndexedNode EMPTY = new BitmapIndexedNode(0, new Object[0]);
+
+        private final int bitmap;
+        private final Object[] array;
+
+        BitmapIndexedNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        @Override
+        public Account find(int shift, int hash, String key) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            Object slotKey = array[2 * index];
+            Object slotValue = array[2 * index + 1];
+            if (slotKey == null) {
+                return ((Node) slotValue).find(shift + BITS, hash, key);
+            }
+            return key.equals(slotKey) ? (Account) slotValue : null;
+        }
+
+        @Override
+        public Node put(int shift, int hash, String key, Account value, boolean[] added) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int index = Integer.bitCount(bitmap & (bit - 1));
+
+            if ((bitmap & bit) == 0) {
+                Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, 2 * index);
+                newArray[2 * index] = key;
+                newArray[2 * index + 1] = value;
+                System.arraycopy(array, 2 * index, newArray, 2 * index + 2, array.length - 2 * index);
+                added[0] = true;
+                return new BitmapIndexedNode(bitmap | bit, newArray);
+            }
+
+            Object slotKey = array[2 * index];
+            Object slotValue = array[2 * index + 1];
+
+            if (slotKey == null) {
+                Node child = ((Node) slotValue).put(shift + BITS, hash, key, value, added);
+                return child == slotValue ? this : copyAndSet(2 * index + 1, child);
+            }
+
+            if (key.equals(slotKey)) {
+                return slotValue == value ? this : copyAndSet(2 * index + 1, value);
+            }
+
+            added[0] = true;
+            Node child = createNode(shift + BITS, (String) slotKey, (Account) slotValue, hash, key, value);
+            Object[] newArray = array.clone();
+            newArray[2 * index] = null;
+            newArray[2 * index + 1] = child;
+            return new BitmapIndexedNode(bitmap, newArray);
+        }
+
+        @Override
+        public Object[] array() {
+            return array;
+        }
+
+        private BitmapIndexedNode copyAndSet(int index, Object value) {
+            Object[] newArray = array.clone();
+            newArray[index] = value;
+            return new BitmapIndexedNode(bitmap, newArray);
+        }
+
+        private static Node createNode(int shift, String key1, Account value1, int hash2, String key2, Account value2) {
+            int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[] {key1, value1, key2, value2});
+            }
+            boolean[] added = new boolean[1];
+            return EMPTY.put(shift, hash1, key1, value1, added).put(shift, hash2, key2, value2, added);
+        }
+    }
+
+    /**
+     * Leaf node for addresses whose full hashes collide
+     */
+    private static final class CollisionNode implements Node {
+
+        private final int hash;
+        private final Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        @Override
+        public Account find(int shift, int hash, String key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return (Account) array[i + 1];
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Node put(int shift, int hash, String key, Account value, boolean[] added) {
+            if (hash != this.hash) {
+                // Push this node one level down and branch on the differing hash bits
+                int bit = 1 << ((this.hash >>> shift) & MASK);
+                return new BitmapIndexedNode(bit, new Object[] {null, this}).put(shift, hash, key, value, added);
+            }
+
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    if (array[i + 1] == value) {
+                        return this;
+                    }
+                    Object[] newArray = array.clone();
+                    newArray[i + 1] = value;
+                    return new CollisionNode(hash, newArray);
+                }
+            }
+
+            Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, array.length);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        public Object[] array() {
+            return array;
+        }
+    }
+
+    /**
+     * Depth-first iterator over the trie using a fixed size stack
+     */
+    private static final class EntryIterator implements Iterator<Entry<String, Account>> {
+
+        private final Object[][] arrays = new Object[MAX_DEPTH][];
+        private final int[] positions = new int[MAX_DEPTH];
+        private int depth;
+        private Entry<String, Account> next;
+
+        EntryIterator(Node root) {
+            if (root != null) {
+                arrays[0] = root.array();
+                advance();
+            } else {
+                depth = -1;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, Account> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, Account> current = next;
+            advance();
+            return current;
+        }
+
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Object[] array = arrays[depth];
+                int position = positions[depth];
+                if (position >= array.length) {
+                    depth--;
+                    continue;
+                }
+                positions[depth] = position + 2;
+                Object key = array[position];
+                Object value = array[position + 1];
+                if (key == null) {
+                    depth++;
+                    arrays[depth] = ((Node) value).array();
+                    positions[depth] = 0;
+                } else {
+                    next = new SimpleImmutableEntry<>((String) key, (Account) value);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.se310.ledger;
+
+/**
+ * TransactionLocation class implementation representing position of a Transaction in the Blockchain
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public class TransactionLocation {
+
+    private final int blockNumber;
+    private final int position;
+
+    /**
+     * TransactionLocation Constructor
+     * @param blockNumber
+     * @param position
+     */
+    public TransactionLocation(int blockNumber, int position) {
+        this.blockNumber = blockNumber;
+        this.position = position;
+    }
+
+    /**
+     * Getter method for the number of the block holding the transaction
+     * @return
+     */
+    public int getBlockNumber() {
+        return blockNumber;
+    }
+
+    /**
+     * Getter method for the index of the transaction within the block's transaction list
+     * @return
+     */
+    public int getPosition() {
+        return position;
+    }
+}
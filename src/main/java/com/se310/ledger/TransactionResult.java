@@ -0,0 +1,47 @@
+package com.se310.ledger;
+
+/**
+ * TransactionResult class implementation representing the outcome of one transaction of a batch
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public class TransactionResult {
+
+    private final String transactionId;
+    private final String reason;
+
+    /**
+     * TransactionResult Constructor
+     * @param transactionId
+     * @param reason null if the transaction was accepted
+     */
+    public TransactionResult(String transactionId, String reason) {
+        this.transactionId = transactionId;
+        this.reason = reason;
+    }
+
+    /**
+     * Getter method for transaction id
+     * @return
+     */
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    /**
+     * Check if the transaction was accepted
+     * @return
+     */
+    public boolean isAccepted() {
+        return reason == null;
+    }
+
+    /**
+     * Getter method for the rejection reason
+     * @return String or Null if the transaction was accepted
+     */
+    public String getReason() {
+        return reason;
+    }
+}
@@ -2,6 +2,7 @@ package com.se310.ledger.interfaces;
 
 import com.se310.ledger.Account;
 import com.se310.ledger.LedgerException;
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -13,5 +14,7 @@ public interface AccountService {
     Account getAccount(String address);
     Integer getAccountBalance(String address) throws LedgerException;
     Map<String, Integer> getAllAccountBalances();
+    Integer getAccountBalanceAt(String address, int blockNumber) throws LedgerException;
+    Map<String, Integer> getAccountBalancesAt(Collection<String> addresses, int blockNumber) throws LedgerException;
     boolean accountExists(String address);
 }
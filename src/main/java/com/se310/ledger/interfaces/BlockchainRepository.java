@@ -2,6 +2,8 @@ package com.se310.ledger.interfaces;
 
 import com.se310.ledger.Block;
 import com.se310.ledger.Transaction;
+import com.se310.ledger.TransactionLocation;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -12,7 +14,14 @@ public interface BlockchainRepository {
     void addBlock(Block block);
     Block getBlock(Integer blockNumber);
     Transaction getTransaction(String transactionId);
+    TransactionLocation getTransactionLocation(String transactionId);
+    boolean containsTransaction(String transactionId);
+    List<Transaction> getTransactionsForAccount(String address, int fromBlock, int limit);
+    Integer getAccountBalanceAt(String address, int blockNumber);
+    void addPendingTransaction(Transaction transaction, int blockNumber, int position);
     int getBlockCount();
     Map<Integer, Block> getAllBlocks();
     Block getLastBlock();
+    void sync();
+    void close();
 }
@@ -8,4 +8,6 @@ import com.se310.ledger.LedgerException;
  */
 public interface BlockchainValidator {
     void validate() throws LedgerException;
+    void validateFull() throws LedgerException;
+    void validateDeep(VerificationListener listener) throws LedgerException;
 }
@@ -1,5 +1,7 @@
 package com.se310.ledger.interfaces;
 
+import com.se310.ledger.Transaction;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -8,4 +10,20 @@ import java.util.List;
  */
 public interface HashGenerator {
     String generateHash(List<String> data);
+
+    /**
+     * Compute the root of a block from the ledger seed and the block transactions
+     * By default the leaves are the seed and the text of each transaction
+     * @param seed
+     * @param transactions
+     * @return String representing the root hash
+     */
+    default String generateHash(String seed, List<Transaction> transactions) {
+        List<String> data = new ArrayList<>(transactions.size() + 1);
+        data.add(seed);
+        for (Transaction transaction : transactions) {
+            data.add(transaction.toString());
+        }
+        return generateHash(data);
+    }
 }
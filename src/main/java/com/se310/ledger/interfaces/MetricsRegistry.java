@@ -0,0 +1,24 @@
+package com.se310.ledger.interfaces;
+
+import com.se310.ledger.MetricsSnapshot;
+import com.se310.ledger.MetricsStage;
+import java.util.function.LongSupplier;
+
+/**
+ * Interface for recording latencies, transaction outcomes and gauges of a Ledger
+ * Called from every thread processing transactions, implementations must be thread-safe and should
+ * not allocate while recording
+ *
+ * A stage is timed by taking startTimer before it and passing the result to recordLatency after it,
+ * which returns the time the next stage can start from.
+ */
+public interface MetricsRegistry {
+    boolean isEnabled();
+    long startTimer();
+    long recordLatency(MetricsStage stage, long startTime);
+    void recordAccepted();
+    void recordRejected(String reason);
+    void registerGauge(String name, LongSupplier gauge);
+    MetricsSnapshot snapshot();
+    void reset();
+}
@@ -0,0 +1,9 @@
+package com.se310.ledger.interfaces;
+
+/**
+ * Interface for following the progress of a deep chain verification
+ * Called from worker threads, implementations must be thread-safe
+ */
+public interface VerificationListener {
+    void onProgress(int verifiedBlocks, int totalBlocks);
+}
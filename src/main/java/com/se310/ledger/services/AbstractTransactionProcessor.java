@@ -0,0 +1,328 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.BlockSealingPolicy;
+import com.se310.ledger.CommittedState;
+import com.se310.ledger.LedgerException;
+import com.se310.ledger.MetricsStage;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.TransactionResult;
+import com.se310.ledger.interfaces.BlockchainRepository;
+import com.se310.ledger.interfaces.HashGenerator;
+import com.se310.ledger.interfaces.MetricsRegistry;
+import com.se310.ledger.interfaces.TransactionValidator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Base of the transaction processors
+ * Follows Single Responsibility Principle by handling only the work every transaction processor shares
+ *
+ * Holds the collaborators of a processor and the write-ahead log, and seals blocks: a subclass completes
+ * the block holding its accepted work, which is then hashed, stored in the repository and published as
+ * the CommittedState before the subclass starts the next block. The transaction log is replayed through
+ * the subclass and checkpointed once the block log durably holds everything it records.
+ */
+public abstract class AbstractTransactionProcessor {
+    private static final long LOG_CHECKPOINT_BYTES = 4L * 1024 * 1024;
+
+    protected final TransactionValidator transactionValidator;
+    protected final BlockchainRepository blockchainRepository;
+    protected final BlockSealingPolicy sealingPolicy;
+    protected volatile WriteAheadLog writeAheadLog;
+    protected volatile MetricsRegistry metricsRegistry = NoOpMetricsRegistry.INSTANCE;
+    private final HashGenerator hashGenerator;
+    private final String seed;
+    private volatile CommittedState committedState;
+
+    protected AbstractTransactionProcessor(TransactionValidator transactionValidator,
+                                           BlockchainRepository blockchainRepository,
+                                           HashGenerator hashGenerator,
+                                           String seed,
+                                           BlockSealingPolicy sealingPolicy) {
+        this.transactionValidator = transactionValidator;
+        this.blockchainRepository = blockchainRepository;
+        this.hashGenerator = hashGenerator;
+        this.seed = seed;
+        this.sealingPolicy = sealingPolicy;
+
+        Block lastBlock = blockchainRepository.getLastBlock();
+        this.committedState = lastBlock == null ? null : new CommittedState(lastBlock);
+    }
+
+    /**
+     * Create an account in the uncommitted block
+     * @param address
+     * @return Account
+     * @throws LedgerException if the account already exists
+     */
+    public abstract Account createAccount(String address) throws LedgerException;
+
+    /**
+     * Process a transaction, returning once it is accepted and recorded in the transaction log
+     * @param transaction
+     * @return String representing transaction id
+     * @throws LedgerException
+     */
+    public abstract String processTransaction(Transaction transaction) throws LedgerException;
+
+    /**
+     * Process a batch of transactions in order, a rejected transaction does not stop the rest of the batch
+     * @param transactions
+     * @return List of results in batch order
+     */
+    public abstract List<TransactionResult> processTransactions(List<Transaction> transactions);
+
+    /**
+     * Seal the uncommitted block if its first transaction has waited longer than the policy allows
+     * @return true if a block was committed
+     * @throws LedgerException
+     */
+    public abstract boolean sealExpiredBlock() throws LedgerException;
+
+    /**
+     * Get an account from the state the next block starts from
+     * The returned Account may be shared with committed blocks and must not be modified
+     * @param address
+     * @return Account or Null
+     */
+    public abstract Account getAccount(String address);
+
+    /**
+     * Check if an account exists in the state the next block starts from
+     * @param address
+     * @return
+     */
+    public abstract boolean containsAccount(String address);
+
+    /**
+     * Getter method for the number of accounts, including those created since the last seal
+     * @return
+     */
+    public abstract int getAccountCount();
+
+    /**
+     * Getter method for the uncommitted block, its accounts hold the balances left by every accepted transaction
+     * @return
+     */
+    public abstract Block getUncommittedBlock();
+
+    /**
+     * Complete the block holding the work accepted since the last seal, called while no work is being accepted
+     * Called again for the same work when the block log did not take the block
+     * @return Block at the next height with its transactions and accounts
+     */
+    protected abstract Block completeBlock();
+
+    /**
+     * Start accepting work into the block following the committed one
+     * @param committedBlock
+     */
+    protected abstract void startBlock(Block committedBlock);
+
+    /**
+     * Apply an account creation found in the transaction log
+     * @param address
+     */
+    protected abstract void replayAccount(String address);
+
+    /**
+     * Apply a transaction found in the transaction log that the block log does not hold
+     * @param transaction
+     * @throws LedgerException
+     */
+    protected abstract void replayTransaction(Transaction transaction) throws LedgerException;
+
+    /**
+     * Replay the transaction log into the uncommitted block and log all further work to it
+     * Records already held by the block log are skipped
+     * @param writeAheadLog
+     */
+    public synchronized void recover(WriteAheadLog writeAheadLog) throws IOException {
+        writeAheadLog.replay(new WriteAheadLog.ReplayHandler() {
+            @Override
+            public void account(String address) {
+                replayAccount(address);
+            }
+
+            @Override
+            public void transaction(Transaction transaction) {
+                if (blockchainRepository.containsTransaction(transaction.getTransactionId())) {
+                    return;
+                }
+                try {
+                    replayTransaction(transaction);
+                } catch (LedgerException e) {
+                    // Only accepted transactions are logged, replaying one cannot be rejected
+                    throw new IllegalStateException(e.getReason(), e);
+                }
+            }
+        });
+        this.writeAheadLog = writeAheadLog;
+    }
+
+    public WriteAheadLog getWriteAheadLog() {
+        return writeAheadLog;
+    }
+
+    /**
+     * Record stage latencies and transaction outcomes to the given registry
+     * @param metricsRegistry
+     */
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    public BlockSealingPolicy getSealingPolicy() {
+        return sealingPolicy;
+    }
+
+    /**
+     * Getter method for the view of the last sealed block
+     * @return CommittedState or Null if no block is sealed yet
+     */
+    public CommittedState getCommittedState() {
+        return committedState;
+    }
+
+    /**
+     * Release the transaction log
+     */
+    public void close() {
+        if (writeAheadLog != null) {
+            writeAheadLog.close();
+        }
+    }
+
+    /**
+     * Seal the work accepted since the last seal as the block at the next height
+     * @throws LedgerException if the block log cannot be written, the block is left uncommitted unless it
+     *         was stored and only forcing it failed
+     */
+    protected void commitBlock() throws LedgerException {
+        BlockCommitEvent event = new BlockCommitEvent();
+        event.begin();
+        long startTime = metricsRegistry.startTimer();
+        Block block = completeBlock();
+        startTime = metricsRegistry.recordLatency(MetricsStage.ACCOUNT_REPLICATION, startTime);
+
+        // Generate hash from the seed and the block transactions
+        long hashStart = System.nanoTime();
+        block.setHash(hashGenerator.generateHash(seed, block.getTransactionList()));
+        event.hashTime = System.nanoTime() - hashStart;
+        startTime = metricsRegistry.recordLatency(MetricsStage.MERKLE_HASH, startTime);
+        block.setSealingPolicy(sealingPolicy);
+
+        // Commit block, a block the log did not take stays uncommitted and is sealed again on the next attempt
+        LedgerException storeFailure = null;
+        try {
+            blockchainRepository.addBlock(block);
+        } catch (UncheckedIOException e) {
+            if (blockchainRepository.getLastBlock() != block) {
+                throw new LedgerException("Commit Block", "Block Log Is Not Writable");
+            }
+            // Appended but not forced, the transaction log still holds its transactions
+            storeFailure = new LedgerException("Commit Block", "Block Log Is Not Writable");
+        }
+        metricsRegistry.recordLatency(MetricsStage.BLOCK_STORE, startTime);
+
+        // Drop the transaction log once the block log durably holds everything it records
+        if (storeFailure == null && writeAheadLog != null && writeAheadLog.size() >= LOG_CHECKPOINT_BYTES) {
+            try {
+                blockchainRepository.sync();
+            } catch (UncheckedIOException e) {
+                storeFailure = new LedgerException("Commit Block", "Block Log Is Not Writable");
+            }
+            if (storeFailure == null) {
+                log(() -> {
+                    writeAheadLog.checkpoint();
+                    return 0;
+                }, "Commit Block");
+            }
+        }
+
+        Block committedBlock = blockchainRepository.getLastBlock();
+        if (event.shouldCommit()) {
+            event.blockNumber = block.getBlockNumber();
+            event.transactionCount = block.getTransactionList().size();
+            event.accountCount = committedBlock.getAccountBalanceMap().size();
+            event.commit();
+        }
+
+        committedState = new CommittedState(committedBlock);
+        startBlock(committedBlock);
+        if (storeFailure != null) {
+            throw storeFailure;
+        }
+    }
+
+    /**
+     * Record a rejected transaction in the metrics and as a Flight Recorder event
+     * @param transaction
+     * @param reason
+     */
+    protected void recordRejected(Transaction transaction, String reason) {
+        metricsRegistry.recordRejected(reason);
+        TransactionRejectedEvent.emit(transaction.getTransactionId(), reason);
+    }
+
+    /**
+     * Run an append to the transaction log
+     * @param action
+     * @param ledgerAction action reported if the log cannot be written
+     * @return log position to wait for with awaitDurable, 0 without a transaction log
+     */
+    protected long log(LogAction action, String ledgerAction) throws LedgerException {
+        if (writeAheadLog == null) {
+            return 0;
+        }
+        try {
+            return action.run();
+        } catch (IOException e) {
+            throw new LedgerException(ledgerAction, "Transaction Log Is Not Writable");
+        }
+    }
+
+    /**
+     * Wait until the transaction log holds everything up to a position
+     * @param position
+     * @param ledgerAction action reported if the log cannot be forced
+     */
+    protected void awaitDurable(long position, String ledgerAction) throws LedgerException {
+        if (writeAheadLog == null) {
+            return;
+        }
+        try {
+            writeAheadLog.awaitDurable(position);
+        } catch (IOException e) {
+            throw new LedgerException(ledgerAction, "Transaction Log Is Not Writable");
+        }
+    }
+
+    /**
+     * Wait until the transaction log holds a batch, if it fails every accepted transaction reports the failure
+     * @param position
+     * @param results results of the batch, updated in place
+     */
+    protected void awaitDurable(long position, List<TransactionResult> results) {
+        try {
+            awaitDurable(position, "Process Transaction");
+        } catch (LedgerException e) {
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i).isAccepted()) {
+                    results.set(i, new TransactionResult(results.get(i).getTransactionId(), e.getReason()));
+                }
+            }
+        }
+    }
+
+    protected interface LogAction {
+        long run() throws IOException;
+    }
+}
@@ -0,0 +1,106 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Block;
+import com.se310.ledger.Transaction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Secondary index from account address to the committed transactions it paid or received
+ * Follows Single Responsibility Principle by handling only account history lookups
+ *
+ * Each account has a PostingList of the block number and the position of each of its transactions in
+ * that block. Postings are added in block order as blocks are sealed, so a page starting at a block is
+ * found by binary search.
+ */
+public class AccountHistoryIndex {
+    private final Map<String, PostingList> postingsMap = new ConcurrentHashMap<>();
+
+    /**
+     * Index the transactions of a sealed block
+     * @param block
+     */
+    public void addBlock(Block block) {
+        List<Transaction> transactionList = block.getTransactionList();
+        for (int i = 0; i < transactionList.size(); i++) {
+            Transaction transaction = transactionList.get(i);
+            add(block.getBlockNumber(), i, transaction.getPayer().getAddress(),
+                    transaction.getReceiver().getAddress());
+        }
+    }
+
+    /**
+     * Index one transaction of a sealed block by its payer and receiver
+     * @param blockNumber
+     * @param position
+     * @param payer
+     * @param receiver
+     */
+    public void add(int blockNumber, int position, String payer, String receiver) {
+        long posting = PostingList.pack(blockNumber, position);
+        postingsMap.computeIfAbsent(payer, address -> new PostingList()).add(posting);
+        if (!receiver.equals(payer)) {
+            postingsMap.computeIfAbsent(receiver, address -> new PostingList()).add(posting);
+        }
+    }
+
+    /**
+     * Get a page of the transactions of an account in chain order
+     * A page never ends part way through a block, so the next page starts at the block after the
+     * last one returned. A block holding more than limit transactions of the account is returned whole.
+     * @param address
+     * @param fromBlock first block to include
+     * @param limit
+     * @param blocks resolves a block number to its block
+     * @return List of Transaction, empty if the account has none from that block
+     */
+    public List<Transaction> getTransactions(String address, int fromBlock, int limit, IntFunction<Block> blocks) {
+        PostingList postings = postingsMap.get(address);
+        if (postings == null) {
+            return List.of();
+        }
+        int count = postings.size();
+        long[] entries = postings.entries();
+
+        int start = PostingList.firstFrom(entries, count, fromBlock);
+        int end = Math.min(count, start + limit);
+        if (end < count && end > start
+                && PostingList.blockOf(entries[end]) == PostingList.blockOf(entries[end - 1])) {
+            // Do not split the last block, drop it unless it is the only one in the page
+            int lastBlock = PostingList.blockOf(entries[end - 1]);
+            int cut = end;
+            while (cut > start && PostingList.blockOf(entries[cut - 1]) == lastBlock) {
+                cut--;
+            }
+            if (cut > start) {
+                end = cut;
+            } else {
+                while (end < count && PostingList.blockOf(entries[end]) == lastBlock) {
+                    end++;
+                }
+            }
+        }
+
+        List<Transaction> transactions = new ArrayList<>(end - start);
+        Block block = null;
+        for (int i = start; i < end; i++) {
+            int blockNumber = PostingList.blockOf(entries[i]);
+            // Postings of one block are adjacent, read each block once
+            if (block == null || block.getBlockNumber() != blockNumber) {
+                block = blocks.apply(blockNumber);
+            }
+            transactions.add(block.getTransactionList().get(PostingList.valueOf(entries[i])));
+        }
+        return transactions;
+    }
+
+    /**
+     * Remove every posting
+     */
+    public void clear() {
+        postingsMap.clear();
+    }
+}
@@ -2,9 +2,11 @@ package com.se310.ledger.services;
 
 import com.se310.ledger.Account;
 import com.se310.ledger.Block;
+import com.se310.ledger.CommittedState;
 import com.se310.ledger.LedgerException;
 import com.se310.ledger.interfaces.AccountService;
 import com.se310.ledger.interfaces.BlockchainRepository;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -14,66 +16,98 @@ import java.util.Map;
  */
 public class AccountServiceImpl implements AccountService {
     private final BlockchainRepository blockchainRepository;
-    private Block uncommittedBlock;
+    private final AbstractTransactionProcessor transactionProcessor;
 
-    public AccountServiceImpl(BlockchainRepository blockchainRepository, Block uncommittedBlock) {
+    public AccountServiceImpl(BlockchainRepository blockchainRepository,
+                              AbstractTransactionProcessor transactionProcessor) {
         this.blockchainRepository = blockchainRepository;
-        this.uncommittedBlock = uncommittedBlock;
+        this.transactionProcessor = transactionProcessor;
     }
 
     @Override
     public Account createAccount(String address) throws LedgerException {
-        if (uncommittedBlock.getAccount(address) != null) {
-            throw new LedgerException("Create Account", "Account Already Exists");
-        }
-
-        Account account = new Account(address, 0);
-        uncommittedBlock.addAccount(address, account);
-        return account;
+        // Accounts belong to whichever block is open, not the block the ledger started with
+        return transactionProcessor.createAccount(address);
     }
 
     @Override
     public Account getAccount(String address) {
-        return uncommittedBlock.getAccount(address);
+        return transactionProcessor.getAccount(address);
     }
 
     @Override
     public Integer getAccountBalance(String address) throws LedgerException {
-        Block lastBlock = blockchainRepository.getLastBlock();
-        if (lastBlock == null) {
+        CommittedState committedState = transactionProcessor.getCommittedState();
+        if (committedState == null) {
             throw new LedgerException("Get Account Balance", "Account Is Not Committed to a Block");
         }
 
-        Account account = lastBlock.getAccount(address);
-        if (account == null) {
+        Integer balance = committedState.getBalance(address);
+        if (balance == null) {
             throw new LedgerException("Get Account Balance", "Account Does Not Exist");
         }
-        return account.getBalance();
+        return balance;
     }
 
+    /**
+     * Get the balances of the last sealed block, the map is read only and shared by every caller
+     * until the next seal
+     * @return Map or Null if no block is sealed yet
+     */
     @Override
     public Map<String, Integer> getAllAccountBalances() {
-        Block lastBlock = blockchainRepository.getLastBlock();
-        if (lastBlock == null) {
-            return null;
+        CommittedState committedState = transactionProcessor.getCommittedState();
+        return committedState == null ? null : committedState.getBalances();
+    }
+
+    @Override
+    public Integer getAccountBalanceAt(String address, int blockNumber) throws LedgerException {
+        checkBlockExists("Get Account Balance At", blockNumber);
+
+        Integer balance = blockchainRepository.getAccountBalanceAt(address, blockNumber);
+        if (balance == null) {
+            throw new LedgerException("Get Account Balance At", "Account Does Not Exist");
         }
+        return balance;
+    }
 
-        Map<String, Account> accountMap = lastBlock.getAccountBalanceMap();
-        Map<String, Integer> balances = new HashMap<>();
+    @Override
+    public Map<String, Integer> getAccountBalancesAt(Collection<String> addresses, int blockNumber)
+            throws LedgerException {
+        checkBlockExists("Get Account Balances At", blockNumber);
+        CommittedState committedState = transactionProcessor.getCommittedState();
 
-        for (Account account : accountMap.values()) {
-            balances.put(account.getAddress(), account.getBalance());
+        // Resolve the state as of the block once, at the last sealed block it is already published
+        Map<String, Integer> balances = new HashMap<>();
+        if (committedState != null && blockNumber == committedState.getBlockNumber()) {
+            for (String address : addresses) {
+                Integer balance = committedState.getBalance(address);
+                if (balance != null) {
+                    balances.put(address, balance);
+                }
+            }
+            return balances;
         }
 
+        Map<String, Account> accounts = blockchainRepository.getBlock(blockNumber).getAccountBalanceMap();
+        for (String address : addresses) {
+            Account account = accounts.get(address);
+            if (account != null) {
+                balances.put(address, account.getBalance());
+            }
+        }
         return balances;
     }
 
     @Override
     public boolean accountExists(String address) {
-        return uncommittedBlock.getAccount(address) != null;
+        return transactionProcessor.containsAccount(address);
     }
 
-    public void setUncommittedBlock(Block uncommittedBlock) {
-        this.uncommittedBlock = uncommittedBlock;
+    private void checkBlockExists(String action, int blockNumber) throws LedgerException {
+        Block lastBlock = blockchainRepository.getLastBlock();
+        if (lastBlock == null || blockNumber < 1 || blockNumber > lastBlock.getBlockNumber()) {
+            throw new LedgerException(action, "Block Does Not Exist");
+        }
     }
 }
@@ -0,0 +1,89 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.PersistentAccountMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Secondary index from account address to the balance it had after each block that changed it
+ * Follows Single Responsibility Principle by handling only historical balance lookups
+ *
+ * Each account has a PostingList of the block number and the balance of every block that touched it,
+ * added in block order as blocks are sealed. The balance as of a block is the last posting at or
+ * before it, found by binary search in O(log changes) without reading any block.
+ */
+public class BalanceHistoryIndex {
+    private final Map<String, PostingList> changesMap = new ConcurrentHashMap<>();
+
+    /**
+     * Index the balances of the accounts a sealed block touched
+     * @param block
+     */
+    public void addBlock(Block block) {
+        for (Account account : block.getTouchedAccounts()) {
+            add(account.getAddress(), block.getBlockNumber(), account.getBalance());
+        }
+    }
+
+    /**
+     * Index the balance of an account after a sealed block
+     * @param address
+     * @param blockNumber
+     * @param balance
+     */
+    public void add(String address, int blockNumber, int balance) {
+        changesMap.computeIfAbsent(address, key -> new PostingList()).add(PostingList.pack(blockNumber, balance));
+    }
+
+    /**
+     * Get the balance of an account as of a block
+     * @param address
+     * @param blockNumber
+     * @return Integer or Null if the account did not exist yet
+     */
+    public Integer getBalanceAt(String address, int blockNumber) {
+        PostingList changes = changesMap.get(address);
+        if (changes == null) {
+            return null;
+        }
+        int count = changes.size();
+        long[] entries = changes.entries();
+
+        int last = PostingList.firstFrom(entries, count, blockNumber + 1) - 1;
+        return last < 0 ? null : PostingList.valueOf(entries[last]);
+    }
+
+    /**
+     * Rebuild the state of every account as of a block
+     * @param blockNumber
+     * @param touchedAccounts accounts the block touched, used in place of rebuilt copies
+     * @return PersistentAccountMap holding every account that existed as of the block
+     */
+    public PersistentAccountMap getStateAt(int blockNumber, Map<String, Account> touchedAccounts) {
+        PersistentAccountMap state = PersistentAccountMap.empty();
+        for (Map.Entry<String, PostingList> entry : changesMap.entrySet()) {
+            Account account = touchedAccounts.get(entry.getKey());
+            if (account == null) {
+                PostingList changes = entry.getValue();
+                int count = changes.size();
+                long[] entries = changes.entries();
+                int last = PostingList.firstFrom(entries, count, blockNumber + 1) - 1;
+                if (last < 0) {
+                    continue;
+                }
+                account = new Account(entry.getKey(), PostingList.valueOf(entries[last]));
+            }
+            state = state.with(entry.getKey(), account);
+        }
+        return state;
+    }
+
+    /**
+     * Remove every change
+     */
+    public void clear() {
+        changesMap.clear();
+    }
+}
@@ -0,0 +1,125 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Transaction;
+import com.se310.ledger.interfaces.HashGenerator;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * Concrete implementation of HashGenerator computing a binary Merkle tree over 32 byte SHA-256 digests
+ * Follows Single Responsibility Principle by handling only hash generation
+ *
+ * Each leaf is hashed once from its UTF-8 bytes, every parent is the hash of the raw 64 byte
+ * concatenation of its children and an unpaired node is hashed on its own. Digests are computed
+ * in place in a reusable per-thread buffer and only the root is hex encoded.
+ *
+ * Block roots use the canonical TransactionCodec encoding of each transaction as its leaf rather than
+ * its text, encoded into a reusable per-thread buffer, so formatting changes never alter a root.
+ *
+ * Roots are not compatible with MerkleHashGenerator, which hashes concatenated leaf text and then
+ * the hex text of child digests. A ledger keeps the hash mode it was created with, blocks sealed in
+ * one mode must be verified in the same mode.
+ */
+public class BinaryMerkleHashGenerator implements HashGenerator {
+
+    private static final int DIGEST_LENGTH = 32;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 Is Not Available", e);
+        }
+    });
+
+    private static final ThreadLocal<byte[][]> BUFFER = ThreadLocal.withInitial(() -> new byte[1][0]);
+
+    @Override
+    public String generateHash(List<String> data) {
+        int count = data.size();
+        if (count == 0) {
+            return "";
+        }
+
+        MessageDigest digest = DIGEST.get();
+        byte[] level = levelBuffer(count);
+
+        // Hash leaves
+        for (int i = 0; i < count; i++) {
+            digest.update(data.get(i).getBytes(StandardCharsets.UTF_8));
+            finish(digest, level, i * DIGEST_LENGTH);
+        }
+
+        return reduce(digest, level, count);
+    }
+
+    @Override
+    public String generateHash(String seed, List<Transaction> transactions) {
+        int count = transactions.size() + 1;
+        MessageDigest digest = DIGEST.get();
+        byte[] level = levelBuffer(count);
+
+        // Hash leaves, the seed as text and each transaction from its canonical encoding
+        digest.update(seed.getBytes(StandardCharsets.UTF_8));
+        finish(digest, level, 0);
+        TransactionCodec.Buffer buffer = TransactionCodec.threadBuffer();
+        for (int i = 1; i < count; i++) {
+            buffer.clear();
+            TransactionCodec.encode(transactions.get(i - 1), buffer);
+            digest.update(buffer.array(), 0, buffer.length());
+            finish(digest, level, i * DIGEST_LENGTH);
+        }
+
+        return reduce(digest, level, count);
+    }
+
+    /**
+     * Reduce levels in place, node i of the next level overwrites slot i, and hex encode the root
+     */
+    private static String reduce(MessageDigest digest, byte[] level, int count) {
+        while (count > 1) {
+            int parents = 0;
+            for (int i = 0; i < count; i += 2) {
+                int length = (i + 1 < count) ? 2 * DIGEST_LENGTH : DIGEST_LENGTH;
+                digest.update(level, i * DIGEST_LENGTH, length);
+                finish(digest, level, parents * DIGEST_LENGTH);
+                parents++;
+            }
+            count = parents;
+        }
+
+        return toHex(level);
+    }
+
+    /**
+     * Get the per-thread digest buffer, growing it when the block has more leaves than before
+     */
+    private static byte[] levelBuffer(int count) {
+        byte[][] holder = BUFFER.get();
+        if (holder[0].length < count * DIGEST_LENGTH) {
+            holder[0] = new byte[Math.max(count, 16) * DIGEST_LENGTH];
+        }
+        return holder[0];
+    }
+
+    private static void finish(MessageDigest digest, byte[] buffer, int offset) {
+        try {
+            digest.digest(buffer, offset, DIGEST_LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalStateException("Digest Buffer Is Too Small", e);
+        }
+    }
+
+    private static String toHex(byte[] buffer) {
+        char[] chars = new char[2 * DIGEST_LENGTH];
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            chars[2 * i] = HEX[(buffer[i] >> 4) & 0x0f];
+            chars[2 * i + 1] = HEX[buffer[i] & 0x0f];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,78 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Block;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of sealed blocks by block number
+ * Follows Single Responsibility Principle by handling only block caching
+ *
+ * Holds at most capacity blocks and evicts the least recently used one, so the heap held by cached
+ * blocks depends on the capacity and not on the length of the chain. Lookups are counted as hits and
+ * misses so the share of reads served from heap can be watched.
+ */
+public class BlockCache {
+
+    private final int capacity;
+    private final Map<Integer, Block> blocks;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public BlockCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Block Cache Capacity Must Be Positive");
+        }
+        this.capacity = capacity;
+        this.blocks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Block> eldest) {
+                return size() > BlockCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Get a cached block, marking it most recently used
+     * @param blockNumber
+     * @return Block or Null if the block is not cached
+     */
+    public synchronized Block get(int blockNumber) {
+        Block block = blocks.get(blockNumber);
+        if (block != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return block;
+    }
+
+    /**
+     * Cache a block, evicting the least recently used block when the cache is full
+     * @param block
+     */
+    public synchronized void put(Block block) {
+        blocks.put(block.getBlockNumber(), block);
+    }
+
+    /**
+     * Getter method for the number of cached blocks
+     * @return
+     */
+    public synchronized int size() {
+        return blocks.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,180 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.BlockSealingPolicy;
+import com.se310.ledger.Transaction;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary encoding of sealed blocks for the on-disk block log
+ *
+ * A record holds the block header, its sealing policy, its transactions and the accounts the block
+ * touched with their balances at seal time. A decoded block therefore carries only its touched
+ * accounts, the full account state is rebuilt by applying the records in order.
+ * Each transaction is stored as an int length followed by its TransactionCodec encoding.
+ */
+public final class BlockCodec {
+    public static final int FORMAT_VERSION = 1;
+
+    private BlockCodec() {
+    }
+
+    /**
+     * Encode a sealed block
+     * @param block
+     * @return byte array holding the record payload
+     */
+    public static byte[] encode(Block block) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + 96 * block.getTransactionList().size());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(block.getBlockNumber());
+            writeString(out, block.getPreviousHash());
+            writeString(out, block.getHash());
+
+            BlockSealingPolicy policy = block.getSealingPolicy() != null ? block.getSealingPolicy() : new BlockSealingPolicy();
+            out.writeInt(policy.getMaxTransactions());
+            out.writeLong(policy.getMaxBytes());
+            out.writeLong(policy.getMaxLingerMillis());
+
+            out.writeInt(block.getTransactionList().size());
+            TransactionCodec.Buffer buffer = TransactionCodec.threadBuffer();
+            for (Transaction transaction : block.getTransactionList()) {
+                buffer.clear();
+                TransactionCodec.encode(transaction, buffer);
+                out.writeInt(buffer.length());
+                out.write(buffer.array(), 0, buffer.length());
+            }
+
+            out.writeInt(block.getTouchedAccounts().size());
+            for (Account account : block.getTouchedAccounts()) {
+                writeString(out, account.getAddress());
+                out.writeInt(account.getBalance());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a block record, the returned block holds only the accounts it touched
+     * @param buffer positioned at the start of the record payload
+     * @return Block
+     */
+    public static Block decode(ByteBuffer buffer) {
+        checkVersion(buffer.get());
+
+        int blockNumber = buffer.getInt();
+        Block block = new Block(blockNumber, readString(buffer));
+        block.setHash(readString(buffer));
+        block.setSealingPolicy(new BlockSealingPolicy(buffer.getInt(), buffer.getLong(), buffer.getLong()));
+
+        int transactionCount = buffer.getInt();
+        String[][] parties = new String[transactionCount][];
+        Transaction[] transactions = new Transaction[transactionCount];
+        for (int i = 0; i < transactionCount; i++) {
+            int length = buffer.getInt();
+            int end = buffer.position() + length;
+            transactions[i] = TransactionCodec.decode(buffer, address -> new Account(address, 0));
+            parties[i] = new String[] {transactions[i].getPayer().getAddress(),
+                    transactions[i].getReceiver().getAddress()};
+            buffer.position(end);
+        }
+
+        int accountCount = buffer.getInt();
+        Map<String, Account> accounts = new HashMap<>(accountCount * 2);
+        for (int i = 0; i < accountCount; i++) {
+            String address = readString(buffer);
+            Account account = new Account(address, buffer.getInt());
+            accounts.put(address, account);
+            block.addAccount(address, account);
+        }
+
+        // Bind transactions to the accounts as they were when the block was sealed
+        for (int i = 0; i < transactionCount; i++) {
+            transactions[i].setPayer(accounts.computeIfAbsent(parties[i][0], address -> new Account(address, 0)));
+            transactions[i].setReceiver(accounts.computeIfAbsent(parties[i][1], address -> new Account(address, 0)));
+            block.getTransactionList().add(transactions[i]);
+        }
+        return block;
+    }
+
+    /**
+     * Read the block number of a record without decoding it
+     * @param buffer positioned at the start of the record payload
+     * @return int
+     */
+    public static int readBlockNumber(ByteBuffer buffer) {
+        return buffer.getInt(buffer.position() + 1);
+    }
+
+    /**
+     * Receives the entries of a record needed to rebuild the secondary indexes
+     */
+    public interface IndexHandler {
+        void transaction(int position, String transactionId, String payer, String receiver);
+        void account(String address, int balance);
+    }
+
+    /**
+     * Read only the transaction id, payer address and receiver address of each transaction of a record
+     * and the balances of the accounts it touched, skipping everything else
+     * @param buffer positioned at the start of the record payload
+     * @param handler
+     */
+    public static void readIndexEntries(ByteBuffer buffer, IndexHandler handler) {
+        checkVersion(buffer.get());
+        buffer.position(buffer.position() + 4);
+        skipString(buffer);
+        skipString(buffer);
+        buffer.position(buffer.position() + 20);
+
+        int transactionCount = buffer.getInt();
+        for (int i = 0; i < transactionCount; i++) {
+            int length = buffer.getInt();
+            String[] key = TransactionCodec.readKey(buffer);
+            handler.transaction(i, key[0], key[1], key[2]);
+            buffer.position(buffer.position() + length);
+        }
+
+        int accountCount = buffer.getInt();
+        for (int i = 0; i < accountCount; i++) {
+            handler.account(readString(buffer), buffer.getInt());
+        }
+    }
+
+    private static void checkVersion(int version) {
+        if (version != FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported Block Format Version: " + version);
+        }
+    }
+
+    private static void skipString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        buffer.position(buffer.position() + length);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
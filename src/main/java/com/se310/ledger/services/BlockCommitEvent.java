@@ -0,0 +1,33 @@
+package com.se310.ledger.services;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event spanning the commit of one block, from copying its accounts to storing it
+ */
+@Name("com.se310.ledger.BlockCommit")
+@Label("Block Commit")
+@Category("Ledger")
+@Description("Seals the uncommitted block and adds it to the chain")
+@StackTrace(false)
+class BlockCommitEvent extends Event {
+
+    @Label("Block Number")
+    int blockNumber;
+
+    @Label("Transaction Count")
+    int transactionCount;
+
+    @Label("Account Count")
+    int accountCount;
+
+    @Label("Hash Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long hashTime;
+}
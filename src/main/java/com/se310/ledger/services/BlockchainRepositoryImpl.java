@@ -2,25 +2,49 @@ package com.se310.ledger.services;
 
 import com.se310.ledger.Block;
 import com.se310.ledger.Transaction;
+import com.se310.ledger.TransactionLocation;
 import com.se310.ledger.interfaces.BlockchainRepository;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
  * Concrete implementation of BlockchainRepository
  * Follows Single Responsibility Principle by handling only blockchain data operations
+ *
+ * Keeps a transaction id index so lookups and duplicate checks do not scan the chain, and account
+ * and balance history indexes so neither the transactions of an account nor its past balances do either.
+ * Transactions of the uncommitted block are indexed as pending until their block is added.
+ * Blocks are kept in a concurrent sorted map so readers on other threads never see it mid-update.
  */
 public class BlockchainRepositoryImpl implements BlockchainRepository {
     private final NavigableMap<Integer, Block> blockMap;
+    private final Map<String, TransactionLocation> transactionIndex;
+    private final AccountHistoryIndex accountHistoryIndex;
+    private final BalanceHistoryIndex balanceHistoryIndex;
 
     public BlockchainRepositoryImpl() {
-        this.blockMap = new TreeMap<>();
+        this.blockMap = new ConcurrentSkipListMap<>();
+        this.transactionIndex = new ConcurrentHashMap<>();
+        this.accountHistoryIndex = new AccountHistoryIndex();
+        this.balanceHistoryIndex = new BalanceHistoryIndex();
     }
 
     @Override
     public void addBlock(Block block) {
+        block.setPreviousBlockLookup(blockMap::get);
         blockMap.put(block.getBlockNumber(), block);
+
+        // Index committed transactions, replacing any pending entries
+        List<Transaction> transactionList = block.getTransactionList();
+        for (int i = 0; i < transactionList.size(); i++) {
+            transactionIndex.put(transactionList.get(i).getTransactionId(),
+                    new TransactionLocation(block.getBlockNumber(), i));
+        }
+        accountHistoryIndex.addBlock(block);
+        balanceHistoryIndex.addBlock(block);
     }
 
     @Override
@@ -30,16 +54,42 @@ public class BlockchainRepositoryImpl implements BlockchainRepository {
 
     @Override
     public Transaction getTransaction(String transactionId) {
-        // Search in committed blocks
-        for (Map.Entry<Integer, Block> entry : blockMap.entrySet()) {
-            Block block = entry.getValue();
-            for (Transaction transaction : block.getTransactionList()) {
-                if (transaction.getTransactionId().equals(transactionId)) {
-                    return transaction;
-                }
-            }
+        TransactionLocation location = transactionIndex.get(transactionId);
+        if (location == null) {
+            return null;
+        }
+
+        // Only committed transactions are visible
+        Block block = blockMap.get(location.getBlockNumber());
+        if (block == null) {
+            return null;
         }
-        return null;
+        return block.getTransactionList().get(location.getPosition());
+    }
+
+    @Override
+    public TransactionLocation getTransactionLocation(String transactionId) {
+        return transactionIndex.get(transactionId);
+    }
+
+    @Override
+    public boolean containsTransaction(String transactionId) {
+        return transactionIndex.containsKey(transactionId);
+    }
+
+    @Override
+    public List<Transaction> getTransactionsForAccount(String address, int fromBlock, int limit) {
+        return accountHistoryIndex.getTransactions(address, fromBlock, limit, blockMap::get);
+    }
+
+    @Override
+    public Integer getAccountBalanceAt(String address, int blockNumber) {
+        return balanceHistoryIndex.getBalanceAt(address, blockNumber);
+    }
+
+    @Override
+    public void addPendingTransaction(Transaction transaction, int blockNumber, int position) {
+        transactionIndex.put(transaction.getTransactionId(), new TransactionLocation(blockNumber, position));
     }
 
     @Override
@@ -55,4 +105,14 @@ public class BlockchainRepositoryImpl implements BlockchainRepository {
     public Block getLastBlock() {
         return blockMap.isEmpty() ? null : blockMap.lastEntry().getValue();
     }
+
+    @Override
+    public void sync() {
+        // Nothing to force, blocks live only in memory
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release, blocks live only in memory
+    }
 }
@@ -1,62 +1,351 @@
 package com.se310.ledger.services;
 
+import com.se310.ledger.Account;
 import com.se310.ledger.Block;
+import com.se310.ledger.BlockSealingPolicy;
 import com.se310.ledger.LedgerException;
+import com.se310.ledger.PersistentAccountMap;
+import com.se310.ledger.Transaction;
 import com.se310.ledger.interfaces.BlockchainValidator;
 import com.se310.ledger.interfaces.BlockchainRepository;
+import com.se310.ledger.interfaces.HashGenerator;
+import com.se310.ledger.interfaces.VerificationListener;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Concrete implementation of BlockchainValidator
  * Follows Single Responsibility Principle by handling only blockchain validation
+ *
+ * The validator keeps a checkpoint of the last verified block: its number and hash, the fees paid up
+ * to it, the total balance of its accounts and its account state. validate checks only the blocks sealed
+ * since the checkpoint and carries the balance total forward with the accounts each block touched,
+ * validateFull re-verifies the whole chain and resets the checkpoint. validateDeep additionally
+ * recomputes the Merkle root of every block from its transactions, splitting the chain into ranges
+ * verified in parallel on the common fork-join pool and stopping every range at the first failure.
+ * Every validation is recorded as a ChainValidationEvent for Flight Recorder.
  */
 public class BlockchainValidatorImpl implements BlockchainValidator {
+    private static final BlockSealingPolicy DEFAULT_SEALING_POLICY = new BlockSealingPolicy();
+    private static final int DEEP_VERIFY_RANGE = 64;
+
     private final BlockchainRepository blockchainRepository;
+    private final HashGenerator hashGenerator;
+    private final String seed;
+
+    // Verified checkpoint
+    private int checkpointBlockNumber;
+    private String checkpointHash;
+    private long checkpointFees;
+    private long checkpointBalance;
+    private PersistentAccountMap checkpointAccounts = PersistentAccountMap.empty();
 
     public BlockchainValidatorImpl(BlockchainRepository blockchainRepository) {
+        this(blockchainRepository, null, null);
+    }
+
+    public BlockchainValidatorImpl(BlockchainRepository blockchainRepository, HashGenerator hashGenerator,
+                                   String seed) {
         this.blockchainRepository = blockchainRepository;
+        this.hashGenerator = hashGenerator;
+        this.seed = seed;
+    }
+
+    @Override
+    public synchronized void validate() throws LedgerException {
+        recordValidation("Incremental", this::validateSinceCheckpoint);
+    }
+
+    @Override
+    public synchronized void validateFull() throws LedgerException {
+        recordValidation("Full", this::validateChain);
     }
 
     @Override
-    public void validate() throws LedgerException {
+    public synchronized void validateDeep(VerificationListener listener) throws LedgerException {
+        recordValidation("Deep", () -> validateMerkleRoots(listener));
+    }
+
+    private void validateSinceCheckpoint() throws LedgerException {
+        Block lastBlock = blockchainRepository.getLastBlock();
+        if (lastBlock == null) {
+            throw new LedgerException("Validate", "No Block Has Been Committed");
+        }
+
+        if (lastBlock.getBlockNumber() == checkpointBlockNumber) {
+            if (!lastBlock.getHash().equals(checkpointHash)) {
+                throw new LedgerException("Validate", "Hash Is Inconsistent: " + lastBlock.getBlockNumber());
+            }
+            return;
+        }
+        if (lastBlock.getBlockNumber() < checkpointBlockNumber) {
+            resetCheckpoint();
+        }
+
+        String previousHash = checkpointHash;
+        long fees = checkpointFees;
+        long totalBalance = checkpointBalance;
+        PersistentAccountMap accounts = checkpointAccounts;
+
+        for (int blockNumber = checkpointBlockNumber + 1; blockNumber <= lastBlock.getBlockNumber(); blockNumber++) {
+            Block block = blockNumber == lastBlock.getBlockNumber()
+                    ? lastBlock : blockchainRepository.getBlock(blockNumber);
+            if (block == null) {
+                throw new LedgerException("Validate", "Block Is Missing: " + blockNumber);
+            }
+
+            // Check for Hash Consistency
+            if (previousHash != null && !block.getPreviousHash().equals(previousHash)) {
+                throw new LedgerException("Validate", "Hash Is Inconsistent: " + blockNumber);
+            }
+            previousHash = block.getHash();
+
+            checkSealingPolicy(block);
+            fees += sumFees(block);
+
+            // Carry the balance total forward by the change in each account the block touched
+            for (Account account : block.getTouchedAccounts()) {
+                Account before = accounts.get(account.getAddress());
+                totalBalance += account.getBalance() - (before == null ? 0 : before.getBalance());
+                accounts = accounts.with(account.getAddress(), account);
+            }
+        }
+
+        // Check for account balances against the total
+        if (totalBalance + fees != Integer.MAX_VALUE) {
+            throw new LedgerException("Validate", "Balance Does Not Add Up");
+        }
+
+        setCheckpoint(lastBlock, fees, totalBalance, accounts);
+    }
+
+    private void validateChain() throws LedgerException {
+        resetCheckpoint();
         Map<Integer, Block> blockMap = blockchainRepository.getAllBlocks();
-        
+
         if (blockMap.isEmpty()) {
             throw new LedgerException("Validate", "No Block Has Been Committed");
         }
 
         Block lastBlock = blockchainRepository.getLastBlock();
-        Map<String, com.se310.ledger.Account> accountMap = lastBlock.getAccountBalanceMap();
-        
-        int totalBalance = accountMap.values().stream()
-                .mapToInt(com.se310.ledger.Account::getBalance)
+        Map<String, Account> accountMap = lastBlock.getAccountBalanceMap();
+
+        long totalBalance = accountMap.values().stream()
+                .mapToLong(Account::getBalance)
                 .sum();
 
-        int fees = 0;
-        
+        long fees = 0;
+        Block previousBlock = null;
+
         for (Block block : blockMap.values()) {
             // Check for Hash Consistency
-            if (block.getBlockNumber() != 1) {
-                if (!block.getPreviousHash().equals(block.getPreviousBlock().getHash())) {
+            if (previousBlock != null) {
+                if (!block.getPreviousHash().equals(previousBlock.getHash())) {
                     throw new LedgerException("Validate", "Hash Is Inconsistent: " + block.getBlockNumber());
                 }
             }
+            previousBlock = block;
 
-            // Check for Transaction Count
-            if (block.getTransactionList().size() != 10) {
-                throw new LedgerException("Validate", "Transaction Count Is Not 10 In Block: " + block.getBlockNumber());
-            }
+            checkSealingPolicy(block);
+            fees += sumFees(block);
+        }
 
-            for (com.se310.ledger.Transaction transaction : block.getTransactionList()) {
-                fees += transaction.getFee();
-            }
+        // Check for account balances against the total
+        if (totalBalance + fees != Integer.MAX_VALUE) {
+            throw new LedgerException("Validate", "Balance Does Not Add Up");
+        }
+
+        setCheckpoint(lastBlock, fees, totalBalance, PersistentAccountMap.empty());
+    }
+
+    private void validateMerkleRoots(VerificationListener listener) throws LedgerException {
+        if (hashGenerator == null) {
+            throw new LedgerException("Validate", "Hash Generator Is Not Configured");
         }
+        resetCheckpoint();
 
-        int adjustedBalance = totalBalance + fees;
+        Block lastBlock = blockchainRepository.getLastBlock();
+        if (lastBlock == null) {
+            throw new LedgerException("Validate", "No Block Has Been Committed");
+        }
+
+        DeepVerifyTask task = new DeepVerifyTask(lastBlock, 1, lastBlock.getBlockNumber() + 1,
+                new AtomicReference<>(), new AtomicInteger(), listener);
+        long fees = ForkJoinPool.commonPool().invoke(task);
+        if (task.failure.get() != null) {
+            throw task.failure.get();
+        }
+
+        long totalBalance = lastBlock.getAccountBalanceMap().values().stream()
+                .mapToLong(Account::getBalance)
+                .sum();
 
         // Check for account balances against the total
-        if (adjustedBalance != Integer.MAX_VALUE) {
+        if (totalBalance + fees != Integer.MAX_VALUE) {
             throw new LedgerException("Validate", "Balance Does Not Add Up");
         }
+
+        setCheckpoint(lastBlock, fees, totalBalance, PersistentAccountMap.empty());
+    }
+
+    /**
+     * Run a validation and record its outcome as a ChainValidationEvent
+     * @param mode
+     * @param validation
+     * @throws LedgerException thrown by the validation
+     */
+    private void recordValidation(String mode, Validation validation) throws LedgerException {
+        ChainValidationEvent event = new ChainValidationEvent();
+        event.begin();
+        try {
+            validation.run();
+            event.valid = true;
+        } catch (LedgerException e) {
+            event.reason = e.getReason();
+            throw e;
+        } finally {
+            if (event.shouldCommit()) {
+                Block lastBlock = blockchainRepository.getLastBlock();
+                event.mode = mode;
+                event.blockNumber = lastBlock == null ? 0 : lastBlock.getBlockNumber();
+                event.commit();
+            }
+        }
+    }
+
+    private interface Validation {
+        void run() throws LedgerException;
+    }
+
+    /**
+     * Verify a block against its recomputed Merkle root, the hash of the block before it and its sealing policy
+     * @param block
+     * @param previousHash hash of the block before it, or null for the first block
+     */
+    private void verifyBlock(Block block, String previousHash) throws LedgerException {
+        if (!hashGenerator.generateHash(seed, block.getTransactionList()).equals(block.getHash())) {
+            throw new LedgerException("Validate", "Merkle Root Does Not Match: " + block.getBlockNumber());
+        }
+
+        // Check for Hash Consistency
+        if (previousHash != null && !block.getPreviousHash().equals(previousHash)) {
+            throw new LedgerException("Validate", "Hash Is Inconsistent: " + block.getBlockNumber());
+        }
+
+        checkSealingPolicy(block);
+    }
+
+    /**
+     * Verifies blocks [from, to) and returns the fees they collected, splitting ranges larger than
+     * DEEP_VERIFY_RANGE in half. Every range stops as soon as any range records a failure.
+     */
+    private class DeepVerifyTask extends RecursiveTask<Long> {
+        private final Block lastBlock;
+        private final int from;
+        private final int to;
+        private final AtomicReference<LedgerException> failure;
+        private final AtomicInteger verifiedBlocks;
+        private final VerificationListener listener;
+
+        DeepVerifyTask(Block lastBlock, int from, int to, AtomicReference<LedgerException> failure,
+                       AtomicInteger verifiedBlocks, VerificationListener listener) {
+            this.lastBlock = lastBlock;
+            this.from = from;
+            this.to = to;
+            this.failure = failure;
+            this.verifiedBlocks = verifiedBlocks;
+            this.listener = listener;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from > DEEP_VERIFY_RANGE) {
+                int middle = (from + to) >>> 1;
+                DeepVerifyTask left = new DeepVerifyTask(lastBlock, from, middle, failure, verifiedBlocks, listener);
+                DeepVerifyTask right = new DeepVerifyTask(lastBlock, middle, to, failure, verifiedBlocks, listener);
+                left.fork();
+                long rightFees = right.compute();
+                return left.join() + rightFees;
+            }
+
+            long fees = 0;
+            String previousHash = null;
+            if (from > 1) {
+                Block previousBlock = getBlock(from - 1);
+                previousHash = previousBlock == null ? null : previousBlock.getHash();
+            }
+
+            for (int blockNumber = from; blockNumber < to && failure.get() == null; blockNumber++) {
+                Block block = getBlock(blockNumber);
+                try {
+                    if (block == null) {
+                        throw new LedgerException("Validate", "Block Is Missing: " + blockNumber);
+                    }
+                    verifyBlock(block, previousHash);
+                } catch (LedgerException e) {
+                    failure.compareAndSet(null, e);
+                    return fees;
+                }
+                fees += sumFees(block);
+                previousHash = block.getHash();
+            }
+
+            int verified = verifiedBlocks.addAndGet(to - from);
+            if (listener != null && failure.get() == null) {
+                listener.onProgress(verified, lastBlock.getBlockNumber());
+            }
+            return fees;
+        }
+
+        private Block getBlock(int blockNumber) {
+            return blockNumber == lastBlock.getBlockNumber() ? lastBlock : blockchainRepository.getBlock(blockNumber);
+        }
+    }
+
+    /**
+     * Getter method for the number of the last verified block, 0 if nothing is verified yet
+     * @return
+     */
+    public synchronized int getCheckpointBlockNumber() {
+        return checkpointBlockNumber;
+    }
+
+    private void checkSealingPolicy(Block block) throws LedgerException {
+        // Check block against the policy that sealed it
+        BlockSealingPolicy sealingPolicy = block.getSealingPolicy() != null
+                ? block.getSealingPolicy() : DEFAULT_SEALING_POLICY;
+        String violation = sealingPolicy.getViolation(block);
+        if (violation != null) {
+            throw new LedgerException("Validate", violation + " In Block: " + block.getBlockNumber());
+        }
+    }
+
+    private static long sumFees(Block block) {
+        long fees = 0;
+        for (Transaction transaction : block.getTransactionList()) {
+            fees += transaction.getFee();
+        }
+        return fees;
+    }
+
+    private void setCheckpoint(Block block, long fees, long totalBalance, PersistentAccountMap accounts) {
+        checkpointBlockNumber = block.getBlockNumber();
+        checkpointHash = block.getHash();
+        checkpointFees = fees;
+        checkpointBalance = totalBalance;
+        // Sealed state is shared with the chain, prefer it over a rebuilt copy
+        checkpointAccounts = block.getAccountBalanceMap() instanceof PersistentAccountMap sealedAccounts
+                ? sealedAccounts : accounts;
+    }
+
+    private void resetCheckpoint() {
+        checkpointBlockNumber = 0;
+        checkpointHash = null;
+        checkpointFees = 0;
+        checkpointBalance = 0;
+        checkpointAccounts = PersistentAccountMap.empty();
     }
 }
@@ -0,0 +1,32 @@
+package com.se310.ledger.services;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning one validation of the chain and carrying its outcome
+ */
+@Name("com.se310.ledger.ChainValidation")
+@Label("Chain Validation")
+@Category("Ledger")
+@Description("Validates the chain incrementally, fully or deeply")
+@StackTrace(false)
+class ChainValidationEvent extends Event {
+
+    @Label("Mode")
+    String mode;
+
+    @Label("Block Number")
+    @Description("Number of the last block of the chain when validation finished")
+    int blockNumber;
+
+    @Label("Valid")
+    boolean valid;
+
+    @Label("Reason")
+    String reason;
+}
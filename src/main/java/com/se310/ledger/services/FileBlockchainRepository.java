@@ -0,0 +1,585 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.FsyncPolicy;
+import com.se310.ledger.PersistentAccountMap;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.TransactionLocation;
+import com.se310.ledger.interfaces.BlockchainRepository;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent implementation of BlockchainRepository backed by an append-only block log
+ * Follows Single Responsibility Principle by handling only blockchain data operations
+ *
+ * Sealed blocks are appended to segment files named after their first block number. Each record is
+ * [int length][int crc32][BlockCodec payload]. Segments are read through FileChannel.map with an
+ * in-memory offset index per segment, so getBlock decodes straight from the mapped file.
+ * Only the last block is kept in heap, older blocks are read back on demand and look up their
+ * previous block by number. A block read back holds the accounts it touched and rebuilds the state
+ * of every other account from the balance history index the first time its account state is
+ * accessed. With a BlockCache the most recently added and read blocks also stay in heap, up to its
+ * capacity, and reads of them skip decoding; a scan of the whole chain reads through the cache
+ * without filling it. On open the log is scanned, a torn tail is truncated and the account state of
+ * the last block is rebuilt from the touched accounts of every record. When snapshots are enabled,
+ * the state is loaded from the newest snapshot and only the records after it are decoded, older
+ * records are read just for their transaction ids, parties and touched balances, which rebuild the
+ * transaction, account history and balance history indexes.
+ */
+public class FileBlockchainRepository implements BlockchainRepository {
+    private static final String SEGMENT_PREFIX = "blocks-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final FsyncPolicy fsyncPolicy;
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<String, TransactionLocation> transactionIndex = new ConcurrentHashMap<>();
+    private final AccountHistoryIndex accountHistoryIndex = new AccountHistoryIndex();
+    private final BalanceHistoryIndex balanceHistoryIndex = new BalanceHistoryIndex();
+    private final ScheduledExecutorService syncScheduler;
+    private final SnapshotStore snapshotStore;
+    private final int snapshotInterval;
+    private final BlockCache blockCache;
+    private final IntFunction<Block> blockLookup = this::getBlock;
+    private volatile Block lastBlock;
+    private volatile int blockCount;
+    private int unsyncedBlocks;
+    private long oldestUnsyncedNanos;
+
+    public FileBlockchainRepository(Path directory, long maxSegmentBytes, FsyncPolicy fsyncPolicy) throws IOException {
+        this(directory, maxSegmentBytes, fsyncPolicy, 0);
+    }
+
+    public FileBlockchainRepository(Path directory, long maxSegmentBytes, FsyncPolicy fsyncPolicy,
+                                    int snapshotInterval) throws IOException {
+        this(directory, maxSegmentBytes, fsyncPolicy, snapshotInterval, 0);
+    }
+
+    /**
+     * Open the block log in the given directory
+     * @param directory
+     * @param maxSegmentBytes
+     * @param fsyncPolicy
+     * @param snapshotInterval blocks between account-state snapshots, 0 to disable snapshots
+     * @param cacheBlocks capacity of the block cache, 0 to decode every block read
+     * @throws IOException
+     */
+    public FileBlockchainRepository(Path directory, long maxSegmentBytes, FsyncPolicy fsyncPolicy,
+                                    int snapshotInterval, int cacheBlocks) throws IOException {
+        this.directory = directory;
+        this.maxSegmentBytes = Math.min(maxSegmentBytes, Integer.MAX_VALUE);
+        this.fsyncPolicy = fsyncPolicy;
+        this.snapshotInterval = snapshotInterval;
+        this.blockCache = cacheBlocks > 0 ? new BlockCache(cacheBlocks) : null;
+
+        Files.createDirectories(directory);
+        snapshotStore = snapshotInterval > 0 ? new SnapshotStore(directory) : null;
+        SnapshotStore.Snapshot snapshot = snapshotStore != null ? snapshotStore.loadLatest() : null;
+        if (!recover(snapshot)) {
+            // The log does not reach the snapshot or disagrees with it, rebuild from the log alone
+            closeSegments();
+            transactionIndex.clear();
+            accountHistoryIndex.clear();
+            balanceHistoryIndex.clear();
+            blockCount = 0;
+            recover(null);
+        }
+
+        if (fsyncPolicy.getMaxDelayMillis() > 0) {
+            syncScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ledger-fsync-" + directory.getFileName());
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(1, fsyncPolicy.getMaxDelayMillis() / 2);
+            syncScheduler.scheduleAtFixedRate(this::syncIfDue, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            syncScheduler = null;
+        }
+    }
+
+    @Override
+    public synchronized void addBlock(Block block) {
+        byte[] payload = BlockCodec.encode(block);
+        int recordBytes = RECORD_HEADER_BYTES + payload.length;
+
+        try {
+            Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (segment == null || (segment.size > 0 && segment.size + recordBytes > maxSegmentBytes)) {
+                if (segment != null) {
+                    segment.channel.force(false);
+                }
+                segment = createSegment(block.getBlockNumber());
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            ByteBuffer record = ByteBuffer.allocate(recordBytes);
+            record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+
+            long position = segment.size;
+            while (record.hasRemaining()) {
+                position += segment.channel.write(record, position);
+            }
+            segment.addOffset(segment.size);
+            segment.size += recordBytes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        indexTransactions(block);
+
+        // Older blocks are read back from the log, do not keep the whole chain reachable
+        block.setPreviousBlockLookup(blockLookup);
+        if (blockCache != null) {
+            blockCache.put(block);
+        }
+        lastBlock = block;
+        blockCount++;
+
+        if (snapshotStore != null && block.getBlockNumber() % snapshotInterval == 0) {
+            // Sealed state is immutable, the snapshot thread reads it without copying
+            snapshotStore.writeAsync(block, this::sync);
+        }
+
+        if (unsyncedBlocks++ == 0) {
+            oldestUnsyncedNanos = System.nanoTime();
+        }
+        syncIfDue();
+    }
+
+    @Override
+    public Block getBlock(Integer blockNumber) {
+        return blockNumber == null ? null : getBlock(blockNumber, true);
+    }
+
+    /**
+     * Getter method for the block cache
+     * @return BlockCache or Null if every block read is decoded
+     */
+    public BlockCache getBlockCache() {
+        return blockCache;
+    }
+
+    /**
+     * Getter method for the snapshot store
+     * @return SnapshotStore or Null if snapshots are not taken
+     */
+    public SnapshotStore getSnapshotStore() {
+        return snapshotStore;
+    }
+
+    /**
+     * Get a block, from the cache when it holds it
+     * @param blockNumber
+     * @param cacheBlock whether to cache the block when it is decoded
+     * @return Block or Null
+     */
+    private Block getBlock(int blockNumber, boolean cacheBlock) {
+        Block tip = lastBlock;
+        if (tip != null && tip.getBlockNumber() == blockNumber) {
+            return tip;
+        }
+        if (blockCache != null) {
+            Block cached = blockCache.get(blockNumber);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        Segment segment;
+        long offset;
+        synchronized (this) {
+            segment = findSegment(blockNumber);
+            if (segment == null) {
+                return null;
+            }
+            offset = segment.offsets[blockNumber - segment.firstBlock];
+        }
+
+        MappedByteBuffer mapped = segment.mapping(offset);
+        int length = mapped.getInt((int) offset);
+        Block block = BlockCodec.decode(mapped.slice((int) offset + RECORD_HEADER_BYTES, length));
+        Map<String, Account> touchedAccounts = block.getAccountBalanceMap();
+        block.setAccountStateLoader(() -> balanceHistoryIndex.getStateAt(blockNumber, touchedAccounts));
+        block.setPreviousBlockLookup(blockLookup);
+        if (blockCache != null && cacheBlock) {
+            blockCache.put(block);
+        }
+        return block;
+    }
+
+    @Override
+    public Transaction getTransaction(String transactionId) {
+        TransactionLocation location = transactionIndex.get(transactionId);
+        Block tip = lastBlock;
+        if (location == null || tip == null || location.getBlockNumber() > tip.getBlockNumber()) {
+            return null;
+        }
+
+        Block block = getBlock(location.getBlockNumber());
+        return block == null ? null : block.getTransactionList().get(location.getPosition());
+    }
+
+    @Override
+    public TransactionLocation getTransactionLocation(String transactionId) {
+        return transactionIndex.get(transactionId);
+    }
+
+    @Override
+    public boolean containsTransaction(String transactionId) {
+        return transactionIndex.containsKey(transactionId);
+    }
+
+    @Override
+    public List<Transaction> getTransactionsForAccount(String address, int fromBlock, int limit) {
+        return accountHistoryIndex.getTransactions(address, fromBlock, limit, this::getBlock);
+    }
+
+    @Override
+    public Integer getAccountBalanceAt(String address, int blockNumber) {
+        return balanceHistoryIndex.getBalanceAt(address, blockNumber);
+    }
+
+    @Override
+    public void addPendingTransaction(Transaction transaction, int blockNumber, int position) {
+        transactionIndex.put(transaction.getTransactionId(), new TransactionLocation(blockNumber, position));
+    }
+
+    @Override
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Get a read only view of the chain, blocks are decoded from the log as they are accessed
+     * @return
+     */
+    @Override
+    public Map<Integer, Block> getAllBlocks() {
+        return new AbstractMap<>() {
+            @Override
+            public Block get(Object key) {
+                return key instanceof Integer blockNumber ? getBlock(blockNumber) : null;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return get(key) != null;
+            }
+
+            @Override
+            public int size() {
+                return blockCount;
+            }
+
+            @Override
+            public Set<Entry<Integer, Block>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<Integer, Block>> iterator() {
+                        return new BlockIterator();
+                    }
+
+                    @Override
+                    public int size() {
+                        return blockCount;
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Block getLastBlock() {
+        return lastBlock;
+    }
+
+    /**
+     * Force every appended block to disk
+     */
+    @Override
+    public synchronized void sync() {
+        if (segments.isEmpty() || unsyncedBlocks == 0) {
+            return;
+        }
+        try {
+            segments.get(segments.size() - 1).channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        unsyncedBlocks = 0;
+    }
+
+    @Override
+    public void close() {
+        // Pending snapshots sync the log first, let them finish before taking the lock
+        if (snapshotStore != null) {
+            snapshotStore.close();
+        }
+        synchronized (this) {
+            if (syncScheduler != null) {
+                syncScheduler.shutdownNow();
+            }
+            sync();
+            closeSegments();
+        }
+    }
+
+    private void closeSegments() {
+        for (Segment segment : segments) {
+            try {
+                segment.channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        segments.clear();
+    }
+
+    private synchronized void syncIfDue() {
+        if (fsyncPolicy.isSyncDue(unsyncedBlocks, oldestUnsyncedNanos, System.nanoTime())) {
+            sync();
+        }
+    }
+
+    private void indexTransactions(Block block) {
+        List<Transaction> transactionList = block.getTransactionList();
+        for (int i = 0; i < transactionList.size(); i++) {
+            transactionIndex.put(transactionList.get(i).getTransactionId(),
+                    new TransactionLocation(block.getBlockNumber(), i));
+        }
+        accountHistoryIndex.addBlock(block);
+        balanceHistoryIndex.addBlock(block);
+    }
+
+    private void indexEntries(int blockNumber, ByteBuffer payload) {
+        BlockCodec.readIndexEntries(payload, new BlockCodec.IndexHandler() {
+            @Override
+            public void transaction(int position, String transactionId, String payer, String receiver) {
+                transactionIndex.put(transactionId, new TransactionLocation(blockNumber, position));
+                accountHistoryIndex.add(blockNumber, position, payer, receiver);
+            }
+
+            @Override
+            public void account(String address, int balance) {
+                balanceHistoryIndex.add(address, blockNumber, balance);
+            }
+        });
+    }
+
+    private Segment findSegment(int blockNumber) {
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            Segment segment = segments.get(middle);
+            if (blockNumber < segment.firstBlock) {
+                high = middle - 1;
+            } else if (blockNumber >= segment.firstBlock + segment.count) {
+                low = middle + 1;
+            } else {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    private Segment createSegment(int firstBlock) throws IOException {
+        Path path = directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, firstBlock, SEGMENT_SUFFIX));
+        Segment segment = new Segment(firstBlock, FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE));
+        segments.add(segment);
+        return segment;
+    }
+
+    /**
+     * Scan the log, rebuild the offset and transaction indexes and the account state of the last block
+     * @param snapshot state to start from, or null to rebuild the state from every record
+     * @return false if the snapshot could not be used
+     */
+    private boolean recover(SnapshotStore.Snapshot snapshot) throws IOException {
+        List<Path> paths;
+        try (Stream<Path> stream = Files.list(directory)) {
+            paths = stream.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+
+        PersistentAccountMap accountState = PersistentAccountMap.empty();
+        Block block = null;
+        boolean torn = false;
+        boolean snapshotApplied = false;
+
+        for (Path path : paths) {
+            if (torn) {
+                // Nothing after a torn record can be trusted
+                Files.delete(path);
+                continue;
+            }
+
+            String name = path.getFileName().toString();
+            int firstBlock = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            Segment segment = new Segment(firstBlock, FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE));
+            long fileSize = segment.channel.size();
+            MappedByteBuffer mapped = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+
+            long offset = 0;
+            while (offset + RECORD_HEADER_BYTES <= fileSize) {
+                int length = mapped.getInt((int) offset);
+                if (length <= 0 || offset + RECORD_HEADER_BYTES + length > fileSize) {
+                    break;
+                }
+                ByteBuffer payload = mapped.slice((int) offset + RECORD_HEADER_BYTES, length);
+                CRC32 crc = new CRC32();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != mapped.getInt((int) offset + 4)) {
+                    break;
+                }
+
+                int blockNumber = BlockCodec.readBlockNumber(payload);
+                if (snapshot != null && blockNumber < snapshot.getBlockNumber()) {
+                    // Covered by the snapshot, only the entries of the secondary indexes are needed
+                    indexEntries(blockNumber, payload);
+                    block = null;
+                } else {
+                    block = BlockCodec.decode(payload);
+                    if (snapshot != null && blockNumber == snapshot.getBlockNumber()) {
+                        if (!block.getHash().equals(snapshot.getHash())) {
+                            segments.add(segment);
+                            return false;
+                        }
+                        accountState = snapshot.getAccounts();
+                        snapshotApplied = true;
+                    } else {
+                        for (Account account : block.getTouchedAccounts()) {
+                            accountState = accountState.with(account.getAddress(), account);
+                        }
+                    }
+                    indexTransactions(block);
+                }
+                segment.addOffset(offset);
+                blockCount++;
+                offset += RECORD_HEADER_BYTES + length;
+            }
+
+            if (offset < fileSize) {
+                segment.channel.truncate(offset);
+                segment.channel.force(true);
+                torn = true;
+            }
+            segment.size = offset;
+
+            if (segment.count == 0) {
+                segment.channel.close();
+                Files.delete(path);
+            } else {
+                segments.add(segment);
+            }
+        }
+
+        if (snapshot != null && !snapshotApplied) {
+            return false;
+        }
+        if (block != null) {
+            block.setAccountBalanceMap(accountState);
+            block.setPreviousBlockLookup(blockLookup);
+            lastBlock = block;
+        }
+        return true;
+    }
+
+    private static class Segment {
+        private final int firstBlock;
+        private final FileChannel channel;
+        private long[] offsets = new long[64];
+        private int count;
+        private long size;
+        private volatile MappedByteBuffer mapped;
+
+        Segment(int firstBlock, FileChannel channel) {
+            this.firstBlock = firstBlock;
+            this.channel = channel;
+        }
+
+        void addOffset(long offset) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = offset;
+        }
+
+        /**
+         * Get a mapping covering the record at the given offset, remapping when the segment has grown
+         */
+        MappedByteBuffer mapping(long offset) {
+            MappedByteBuffer current = mapped;
+            if (current != null && offset + RECORD_HEADER_BYTES <= current.capacity()
+                    && offset + RECORD_HEADER_BYTES + current.getInt((int) offset) <= current.capacity()) {
+                return current;
+            }
+            synchronized (this) {
+                try {
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return mapped;
+            }
+        }
+    }
+
+    private class BlockIterator implements Iterator<Map.Entry<Integer, Block>> {
+        private int nextBlockNumber;
+        private final int lastBlockNumber;
+
+        BlockIterator() {
+            synchronized (FileBlockchainRepository.this) {
+                nextBlockNumber = segments.isEmpty() ? 1 : segments.get(0).firstBlock;
+            }
+            Block tip = lastBlock;
+            lastBlockNumber = tip == null ? 0 : tip.getBlockNumber();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextBlockNumber <= lastBlockNumber;
+        }
+
+        @Override
+        public Map.Entry<Integer, Block> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int blockNumber = nextBlockNumber++;
+            return new AbstractMap.SimpleImmutableEntry<>(blockNumber, getBlock(blockNumber, false));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.MetricsSnapshot;
+import com.se310.ledger.MetricsStage;
+import com.se310.ledger.interfaces.MetricsRegistry;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Concrete implementation of MetricsRegistry
+ * Follows Single Responsibility Principle by handling only metrics collection
+ *
+ * Each stage has a LatencyHistogram and outcomes are counted in LongAdders, so recording allocates
+ * nothing once a rejection reason has been seen and threads recording at once do not contend. Gauges are
+ * read when a snapshot is taken.
+ */
+public class MetricsRegistryImpl implements MetricsRegistry {
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[MetricsStage.values().length];
+    private final LongAdder acceptedTransactions = new LongAdder();
+    private final Map<String, LongAdder> rejectedTransactions = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public MetricsRegistryImpl() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public long startTimer() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public long recordLatency(MetricsStage stage, long startTime) {
+        long now = System.nanoTime();
+        latencies[stage.ordinal()].record(now - startTime);
+        return now;
+    }
+
+    @Override
+    public void recordAccepted() {
+        acceptedTransactions.increment();
+    }
+
+    @Override
+    public void recordRejected(String reason) {
+        LongAdder count = rejectedTransactions.get(reason);
+        if (count == null) {
+            count = rejectedTransactions.computeIfAbsent(reason, key -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    @Override
+    public void registerGauge(String name, LongSupplier gauge) {
+        gauges.put(name, gauge);
+    }
+
+    @Override
+    public MetricsSnapshot snapshot() {
+        Map<MetricsStage, LatencyHistogram> latencyCopies = new EnumMap<>(MetricsStage.class);
+        for (MetricsStage stage : MetricsStage.values()) {
+            LatencyHistogram copy = latencies[stage.ordinal()].copy();
+            if (copy.getCount() > 0) {
+                latencyCopies.put(stage, copy);
+            }
+        }
+
+        Map<String, Long> rejected = new TreeMap<>();
+        rejectedTransactions.forEach((reason, count) -> rejected.put(reason, count.sum()));
+
+        Map<String, Long> gaugeValues = new LinkedHashMap<>();
+        synchronized (gauges) {
+            gauges.forEach((name, gauge) -> gaugeValues.put(name, gauge.getAsLong()));
+        }
+        return new MetricsSnapshot(latencyCopies, acceptedTransactions.sum(), rejected, gaugeValues);
+    }
+
+    /**
+     * Forget every recorded latency and outcome, gauges stay registered
+     */
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : latencies) {
+            histogram.reset();
+        }
+        acceptedTransactions.reset();
+        rejectedTransactions.clear();
+    }
+}
@@ -0,0 +1,58 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.MetricsSnapshot;
+import com.se310.ledger.MetricsStage;
+import com.se310.ledger.interfaces.MetricsRegistry;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * MetricsRegistry used when metrics are disabled
+ * Follows Single Responsibility Principle by handling only the disabled case
+ *
+ * Every call does nothing and reads no clock, so the timing calls left in the processing path cost a
+ * call the JIT inlines away.
+ */
+public class NoOpMetricsRegistry implements MetricsRegistry {
+
+    public static final NoOpMetricsRegistry INSTANCE = new NoOpMetricsRegistry();
+
+    private NoOpMetricsRegistry() {
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public long startTimer() {
+        return 0;
+    }
+
+    @Override
+    public long recordLatency(MetricsStage stage, long startTime) {
+        return 0;
+    }
+
+    @Override
+    public void recordAccepted() {
+    }
+
+    @Override
+    public void recordRejected(String reason) {
+    }
+
+    @Override
+    public void registerGauge(String name, LongSupplier gauge) {
+    }
+
+    @Override
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(Map.of(), 0, Map.of(), Map.of());
+    }
+
+    @Override
+    public void reset() {
+    }
+}
@@ -0,0 +1,173 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.BlockSealingPolicy;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.interfaces.TransactionValidator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Speculative executor for batches of transactions
+ * Follows Single Responsibility Principle by handling only the parallel part of batch execution
+ *
+ * Every transaction of a batch is executed against the account state the batch starts from, in
+ * parallel on a fork-join pool. Execution resolves the payer and receiver, runs the validator, sizes
+ * the transaction and encodes its log record. The only balance it reads is the payer's, so that is its
+ * read set, and its write set is the payer and receiver. The processor then applies the batch in order
+ * under its lock, checking ids for duplicates, and re-executes a transaction against the current state
+ * only when an earlier transaction of the batch wrote its payer, so final balances and rejections are
+ * exactly those of sequential execution. Only validation reads the balance, so re-execution runs the
+ * validator again and keeps the size and log record. A transfer adds to its receiver without reading
+ * it, so payout runs to distinct receivers only ever re-validate against the shared payer.
+ */
+public class ParallelTransactionExecutor {
+    private static final int SPECULATION_RANGE = 256;
+
+    private final ForkJoinPool pool;
+    private final TransactionValidator transactionValidator;
+
+    /**
+     * Outcome of executing one transaction against the state the batch started from
+     */
+    static class Speculation {
+        Account payer;
+        Account receiver;
+        String error;
+        boolean prepared;
+        long transactionBytes;
+        byte[] logRecord;
+    }
+
+    public ParallelTransactionExecutor(int parallelism, TransactionValidator transactionValidator) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.transactionValidator = transactionValidator;
+    }
+
+    /**
+     * Execute a batch speculatively, the given block must not change until this returns
+     * @param transactions
+     * @param state block holding the account state the batch starts from
+     * @param sealingPolicy sizes transactions when it limits block bytes
+     * @param encodeLogRecords whether to encode the transaction log record of each transaction
+     * @return Speculation per transaction in batch order
+     */
+    Speculation[] speculate(List<Transaction> transactions, Block state, BlockSealingPolicy sealingPolicy,
+                            boolean encodeLogRecords) {
+        Speculation[] speculations = new Speculation[transactions.size()];
+        pool.invoke(new SpeculateTask(transactions, state, sealingPolicy, encodeLogRecords, speculations,
+                0, transactions.size()));
+        return speculations;
+    }
+
+    /**
+     * Execute a transaction again against the current state, used when an earlier transaction of the
+     * batch wrote its payer so the validator sees the balance those transactions left
+     * @param transaction
+     * @param speculation outcome of the speculative execution, updated in place
+     * @param state block holding the current account state
+     * @param sealingPolicy
+     * @param encodeLogRecord
+     */
+    void reexecute(Transaction transaction, Speculation speculation, Block state, BlockSealingPolicy sealingPolicy,
+                   boolean encodeLogRecord) {
+        speculation.payer = state.getAccount(speculation.payer.getAddress());
+        speculation.receiver = state.getAccount(speculation.receiver.getAddress());
+        transaction.setPayer(speculation.payer);
+        transaction.setReceiver(speculation.receiver);
+
+        speculation.error = transactionValidator.getValidationError(transaction);
+        if (speculation.error == null && !speculation.prepared) {
+            // Rejected speculatively, so not sized or encoded yet
+            prepare(transaction, speculation, sealingPolicy, encodeLogRecord);
+        }
+    }
+
+    /**
+     * Stop the worker pool
+     */
+    public void close() {
+        pool.shutdown();
+    }
+
+    private Speculation execute(Transaction transaction, Block state, BlockSealingPolicy sealingPolicy,
+                                boolean encodeLogRecord) {
+        Speculation speculation = new Speculation();
+
+        // Resolve accounts against the state the batch starts from
+        if (transaction.getPayer() == null || transaction.getReceiver() == null) {
+            speculation.error = "Account Does Not Exist";
+            return speculation;
+        }
+        Account payer = state.getAccount(transaction.getPayer().getAddress());
+        Account receiver = state.getAccount(transaction.getReceiver().getAddress());
+        if (payer == null || receiver == null) {
+            // No account is created during a batch, this outcome never needs re-execution
+            speculation.error = "Account Does Not Exist";
+            return speculation;
+        }
+        speculation.payer = payer;
+        speculation.receiver = receiver;
+        transaction.setPayer(speculation.payer);
+        transaction.setReceiver(speculation.receiver);
+
+        // Validate transaction, the funds check reads the payer balance
+        speculation.error = transactionValidator.getValidationError(transaction);
+        if (speculation.error != null) {
+            return speculation;
+        }
+
+        prepare(transaction, speculation, sealingPolicy, encodeLogRecord);
+        return speculation;
+    }
+
+    private static void prepare(Transaction transaction, Speculation speculation, BlockSealingPolicy sealingPolicy,
+                                boolean encodeLogRecord) {
+        speculation.transactionBytes = sealingPolicy.getMaxBytes() > 0 ? sealingPolicy.sizeOf(transaction) : 0;
+        if (encodeLogRecord) {
+            speculation.logRecord = WriteAheadLog.encodeTransaction(transaction);
+        }
+        speculation.prepared = true;
+    }
+
+    /**
+     * Executes transactions [from, to) of the batch, splitting ranges larger than SPECULATION_RANGE in half
+     */
+    private class SpeculateTask extends RecursiveAction {
+        private final List<Transaction> transactions;
+        private final Block state;
+        private final BlockSealingPolicy sealingPolicy;
+        private final boolean encodeLogRecords;
+        private final Speculation[] speculations;
+        private final int from;
+        private final int to;
+
+        SpeculateTask(List<Transaction> transactions, Block state, BlockSealingPolicy sealingPolicy,
+                      boolean encodeLogRecords, Speculation[] speculations, int from, int to) {
+            this.transactions = transactions;
+            this.state = state;
+            this.sealingPolicy = sealingPolicy;
+            this.encodeLogRecords = encodeLogRecords;
+            this.speculations = speculations;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPECULATION_RANGE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SpeculateTask(transactions, state, sealingPolicy, encodeLogRecords, speculations,
+                                from, middle),
+                        new SpeculateTask(transactions, state, sealingPolicy, encodeLogRecords, speculations,
+                                middle, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                speculations[i] = execute(transactions.get(i), state, sealingPolicy, encodeLogRecords);
+            }
+        }
+    }
+}
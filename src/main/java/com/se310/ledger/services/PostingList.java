@@ -0,0 +1,66 @@
+package com.se310.ledger.services;
+
+import java.util.Arrays;
+
+/**
+ * Append-only list of postings kept in block order, a posting packs a block number into its high
+ * 32 bits and a value into its low 32 bits
+ *
+ * A single writer appends while readers take the size first and only read entries below it, the
+ * array is replaced before the size grows so a reader never sees a size beyond its array.
+ */
+final class PostingList {
+    private volatile long[] entries = new long[4];
+    private volatile int count;
+
+    static long pack(int blockNumber, int value) {
+        return ((long) blockNumber << 32) | (value & 0xFFFFFFFFL);
+    }
+
+    static int blockOf(long posting) {
+        return (int) (posting >>> 32);
+    }
+
+    static int valueOf(long posting) {
+        return (int) posting;
+    }
+
+    /**
+     * Index of the first of the given entries at or after a block
+     * @param entries
+     * @param count number of entries to search
+     * @param blockNumber
+     * @return int, count if every entry is before the block
+     */
+    static int firstFrom(long[] entries, int count, int blockNumber) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (blockOf(entries[middle]) < blockNumber) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    void add(long posting) {
+        long[] current = entries;
+        if (count == current.length) {
+            current = Arrays.copyOf(current, count * 2);
+            entries = current;
+        }
+        current[count] = posting;
+        count = count + 1;
+    }
+
+    int size() {
+        return count;
+    }
+
+    long[] entries() {
+        return entries;
+    }
+}
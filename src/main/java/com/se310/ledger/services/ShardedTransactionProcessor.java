@@ -0,0 +1,472 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.BlockSealingPolicy;
+import com.se310.ledger.LedgerException;
+import com.se310.ledger.MetricsStage;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.TransactionResult;
+import com.se310.ledger.interfaces.BlockchainRepository;
+import com.se310.ledger.interfaces.HashGenerator;
+import com.se310.ledger.interfaces.TransactionValidator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Transaction processor partitioning the account space across shards by address hash
+ * Follows Single Responsibility Principle by handling only sharded transaction processing
+ *
+ * Each shard owns the working state of its accounts since the last seal and the transactions paid
+ * by them, guarded by the shard's own monitor, so transfers between accounts of different shards pairs
+ * run concurrently. A transfer within a shard is validated and applied under that shard alone. A transfer
+ * across shards is validated, logged and debited under the payer shard, then credited under the receiver
+ * shard, so no thread ever holds two shard locks. The amount is in flight between the two phases, which
+ * is why every transfer runs under the read side of a block-height barrier: sealing takes the write side,
+ * waits for every transfer to finish both phases and merges all shards into the one block of that height.
+ * A sealed block therefore holds only complete transfers and the BlockchainValidatorImpl balance total
+ * still adds up.
+ *
+ * A transaction is logged under its payer shard before it is applied, and a credit is logged before it
+ * lands, so replaying the transaction log in order never rejects a transaction that was accepted.
+ * Blocks are sealed by transaction count and linger time, a block byte limit is not supported.
+ *
+ * Every accepted transaction takes the next number of a global acceptance sequence under its payer shard.
+ * A transaction spending a credit is accepted after the transfer that made it, so merging the shards by
+ * that sequence gives the sealed block an order in which every transaction is valid when replayed.
+ */
+public class ShardedTransactionProcessor extends AbstractTransactionProcessor {
+    private final Shard[] shards;
+    private final ReadWriteLock blockBarrier = new ReentrantReadWriteLock();
+    private final Set<String> pendingTransactionIds = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger reservedTransactions = new AtomicInteger();
+    private final AtomicLong uncommittedOpenedAt = new AtomicLong();
+    private final AtomicLong acceptanceSequence = new AtomicLong();
+    private final Block firstBlock;
+    private volatile Block lastBlock;
+    private volatile Map<String, Account> committedAccounts;
+
+    /**
+     * Working state of the accounts of one shard, guarded by the shard monitor
+     */
+    private static class Shard {
+        // Accounts created or written since the last seal, owned by the next block
+        final Map<String, Account> accounts = new HashMap<>();
+        // Accepted transactions paid by accounts of this shard and their acceptance sequence, in acceptance order
+        final List<Transaction> transactions = new ArrayList<>();
+        long[] sequences = new long[16];
+
+        void addTransaction(Transaction transaction, long sequence) {
+            if (transactions.size() == sequences.length) {
+                sequences = Arrays.copyOf(sequences, sequences.length * 2);
+            }
+            sequences[transactions.size()] = sequence;
+            transactions.add(transaction);
+        }
+    }
+
+    public ShardedTransactionProcessor(int shardCount,
+                                       TransactionValidator transactionValidator,
+                                       BlockchainRepository blockchainRepository,
+                                       HashGenerator hashGenerator,
+                                       String seed,
+                                       Block uncommittedBlock,
+                                       BlockSealingPolicy sealingPolicy) {
+        super(transactionValidator, blockchainRepository, hashGenerator, seed, sealingPolicy);
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard Count Must Be Positive");
+        }
+        if (sealingPolicy.getMaxBytes() > 0) {
+            throw new IllegalArgumentException("Sharded Processing Does Not Support Block Bytes");
+        }
+
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+
+        // The given block is the open block, its own accounts move to their shards
+        this.firstBlock = uncommittedBlock;
+        this.lastBlock = uncommittedBlock.getPreviousBlock();
+        this.committedAccounts = uncommittedBlock.getAccountBalanceMap();
+        for (Account account : uncommittedBlock.getTouchedAccounts()) {
+            shardOf(account.getAddress()).accounts.put(account.getAddress(), account);
+        }
+    }
+
+    @Override
+    public Account createAccount(String address) throws LedgerException {
+        Account account = new Account(address, 0);
+        Shard shard = shardOf(address);
+        long position;
+
+        blockBarrier.readLock().lock();
+        try {
+            synchronized (shard) {
+                if (getAccount(shard, address) != null) {
+                    throw new LedgerException("Create Account", "Account Already Exists");
+                }
+
+                position = log(() -> writeAheadLog.appendAccount(address), "Create Account");
+                shard.accounts.put(address, account);
+            }
+        } finally {
+            blockBarrier.readLock().unlock();
+        }
+        awaitDurable(position, "Create Account");
+        return account;
+    }
+
+    @Override
+    public String processTransaction(Transaction transaction) throws LedgerException {
+        long position;
+        try {
+            position = applyTransaction(transaction, true);
+        } catch (LedgerException e) {
+            recordRejected(transaction, e.getReason());
+            throw e;
+        }
+        metricsRegistry.recordAccepted();
+        awaitDurable(position, "Process Transaction");
+        return transaction.getTransactionId();
+    }
+
+    /**
+     * Process a batch of transactions in order, each one going to the shards of its own accounts
+     * A rejected transaction does not stop the rest of the batch
+     * @param transactions
+     * @return List of results in batch order
+     */
+    @Override
+    public List<TransactionResult> processTransactions(List<Transaction> transactions) {
+        List<TransactionResult> results = new ArrayList<>(transactions.size());
+        long position = 0;
+
+        for (Transaction transaction : transactions) {
+            try {
+                position = Math.max(position, applyTransaction(transaction, true));
+                metricsRegistry.recordAccepted();
+                results.add(new TransactionResult(transaction.getTransactionId(), null));
+            } catch (LedgerException e) {
+                recordRejected(transaction, e.getReason());
+                results.add(new TransactionResult(transaction.getTransactionId(), e.getReason()));
+            }
+        }
+
+        // One durability wait covers the whole batch
+        awaitDurable(position, results);
+        return results;
+    }
+
+    @Override
+    protected void replayAccount(String address) {
+        Shard shard = shardOf(address);
+        synchronized (shard) {
+            if (getAccount(shard, address) == null) {
+                shard.accounts.put(address, new Account(address, 0));
+            }
+        }
+    }
+
+    @Override
+    protected void replayTransaction(Transaction transaction) throws LedgerException {
+        applyTransaction(transaction, false);
+    }
+
+    @Override
+    public boolean sealExpiredBlock() throws LedgerException {
+        blockBarrier.writeLock().lock();
+        try {
+            if (reservedTransactions.get() > 0
+                    && sealingPolicy.isExpired(uncommittedOpenedAt.get(), System.nanoTime())) {
+                commitBlock();
+                return true;
+            }
+            return false;
+        } finally {
+            blockBarrier.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get an account from the state the next block starts from
+     * @param address
+     * @return Account or Null
+     */
+    @Override
+    public Account getAccount(String address) {
+        Shard shard = shardOf(address);
+        synchronized (shard) {
+            return getAccount(shard, address);
+        }
+    }
+
+    /**
+     * Get a copy of the uncommitted block merged from every shard
+     * The copy is not updated by later transactions
+     * @return Block
+     */
+    @Override
+    public Block getUncommittedBlock() {
+        blockBarrier.writeLock().lock();
+        try {
+            return mergeShards();
+        } finally {
+            blockBarrier.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsAccount(String address) {
+        return getAccount(address) != null;
+    }
+
+    /**
+     * Getter method for the number of shards
+     * @return
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Getter method for the number of accounts, counting accounts created in the shards since the last seal
+     * @return
+     */
+    @Override
+    public int getAccountCount() {
+        blockBarrier.readLock().lock();
+        try {
+            int count = committedAccounts.size();
+            for (Shard shard : shards) {
+                synchronized (shard) {
+                    for (String address : shard.accounts.keySet()) {
+                        if (!committedAccounts.containsKey(address)) {
+                            count++;
+                        }
+                    }
+                }
+            }
+            return count;
+        } finally {
+            blockBarrier.readLock().unlock();
+        }
+    }
+
+    /**
+     * Validate, log and apply a transaction across the shards of its payer and receiver
+     * @param transaction
+     * @param logTransaction false while replaying the transaction log
+     * @return position of the transaction in the transaction log
+     */
+    private long applyTransaction(Transaction transaction, boolean logTransaction) throws LedgerException {
+        if (transaction.getPayer() == null || transaction.getReceiver() == null) {
+            throw new LedgerException("Process Transaction", "Account Does Not Exist");
+        }
+        String payerAddress = transaction.getPayer().getAddress();
+        String receiverAddress = transaction.getReceiver().getAddress();
+        Shard payerShard = shardOf(payerAddress);
+        Shard receiverShard = shardOf(receiverAddress);
+
+        while (true) {
+            blockBarrier.readLock().lock();
+            int slot = reservedTransactions.incrementAndGet();
+            if (slot > sealingPolicy.getMaxTransactions()) {
+                // The block is full, let the transaction that filled it seal it and retry in the next one
+                reservedTransactions.decrementAndGet();
+                blockBarrier.readLock().unlock();
+                sealFullBlock();
+                continue;
+            }
+
+            long position;
+            long executionStart;
+            boolean accepted = false;
+            try {
+                // Accounts are never removed, a receiver that exists now still exists when credited
+                if (receiverShard != payerShard) {
+                    synchronized (receiverShard) {
+                        if (getAccount(receiverShard, receiverAddress) == null) {
+                            throw new LedgerException("Process Transaction", "Account Does Not Exist");
+                        }
+                    }
+                }
+
+                // Phase one, validate, log and debit under the payer shard
+                synchronized (payerShard) {
+                    Account payer = getAccount(payerShard, payerAddress);
+                    Account receiver = receiverShard == payerShard
+                            ? getAccount(payerShard, receiverAddress) : transaction.getReceiver();
+                    if (payer == null || receiver == null) {
+                        throw new LedgerException("Process Transaction", "Account Does Not Exist");
+                    }
+                    transaction.setPayer(payer);
+                    transaction.setReceiver(receiver);
+
+                    String validationError = transactionValidator.getValidationError(transaction);
+                    if (validationError != null) {
+                        throw new LedgerException("Process Transaction", validationError);
+                    }
+
+                    // Check for duplicate transaction ID across committed and uncommitted blocks
+                    long startTime = metricsRegistry.startTimer();
+                    boolean duplicate = blockchainRepository.containsTransaction(transaction.getTransactionId())
+                            || !pendingTransactionIds.add(transaction.getTransactionId());
+                    metricsRegistry.recordLatency(MetricsStage.DUPLICATE_CHECK, startTime);
+                    if (duplicate) {
+                        throw new LedgerException("Process Transaction", "Transaction Id Must Be Unique");
+                    }
+
+                    try {
+                        position = logTransaction
+                                ? log(() -> writeAheadLog.appendTransaction(transaction), "Process Transaction")
+                                : 0;
+                    } catch (LedgerException e) {
+                        pendingTransactionIds.remove(transaction.getTransactionId());
+                        throw e;
+                    }
+
+                    executionStart = metricsRegistry.startTimer();
+                    Account payerAccount = getAccountForUpdate(payerShard, payerAddress);
+                    payerAccount.setBalance(payerAccount.getBalance() - transaction.getAmount() - transaction.getFee());
+                    transaction.setPayer(payerAccount);
+                    if (receiverShard == payerShard) {
+                        Account receiverAccount = getAccountForUpdate(payerShard, receiverAddress);
+                        receiverAccount.setBalance(receiverAccount.getBalance() + transaction.getAmount());
+                        transaction.setReceiver(receiverAccount);
+                    }
+                    payerShard.addTransaction(transaction, acceptanceSequence.getAndIncrement());
+                }
+
+                // Phase two, credit under the receiver shard
+                if (receiverShard != payerShard) {
+                    synchronized (receiverShard) {
+                        Account receiverAccount = getAccountForUpdate(receiverShard, receiverAddress);
+                        receiverAccount.setBalance(receiverAccount.getBalance() + transaction.getAmount());
+                        transaction.setReceiver(receiverAccount);
+                    }
+                }
+                metricsRegistry.recordLatency(MetricsStage.EXECUTION, executionStart);
+                uncommittedOpenedAt.compareAndSet(0, System.nanoTime());
+                accepted = true;
+            } finally {
+                if (!accepted) {
+                    reservedTransactions.decrementAndGet();
+                }
+                blockBarrier.readLock().unlock();
+            }
+
+            if (slot == sealingPolicy.getMaxTransactions()) {
+                try {
+                    sealFullBlock();
+                } catch (LedgerException e) {
+                    // This transaction is accepted and logged, the next one finds the block full and retries
+                }
+            }
+            return position;
+        }
+    }
+
+    /**
+     * Seal the uncommitted block once every transaction that reserved a place in it has finished
+     */
+    private void sealFullBlock() throws LedgerException {
+        blockBarrier.writeLock().lock();
+        try {
+            if (reservedTransactions.get() >= sealingPolicy.getMaxTransactions()) {
+                commitBlock();
+            }
+        } finally {
+            blockBarrier.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Merge the shards into the block at the next height, the caller holds the barrier write lock
+     * Transactions are taken from the shards in acceptance order
+     * @return Block
+     */
+    private Block mergeShards() {
+        Block block = lastBlock == null
+                ? new Block(firstBlock.getBlockNumber(), firstBlock.getPreviousHash())
+                : new Block(lastBlock.getBlockNumber() + 1, lastBlock);
+        int transactionCount = 0;
+        for (Shard shard : shards) {
+            for (Map.Entry<String, Account> entry : shard.accounts.entrySet()) {
+                block.addAccount(entry.getKey(), entry.getValue());
+            }
+            transactionCount += shard.transactions.size();
+        }
+
+        // Each shard is already in acceptance order, repeatedly take the earliest head
+        int[] next = new int[shards.length];
+        List<Transaction> transactionList = block.getTransactionList();
+        for (int i = 0; i < transactionCount; i++) {
+            int earliest = -1;
+            for (int j = 0; j < shards.length; j++) {
+                if (next[j] < shards[j].transactions.size() && (earliest < 0
+                        || shards[j].sequences[next[j]] < shards[earliest].sequences[next[earliest]])) {
+                    earliest = j;
+                }
+            }
+            transactionList.add(shards[earliest].transactions.get(next[earliest]++));
+        }
+        return block;
+    }
+
+    /**
+     * Merge the shards, the caller holds the barrier write lock
+     * @return Block
+     */
+    @Override
+    protected Block completeBlock() {
+        return mergeShards();
+    }
+
+    /**
+     * Start the next height from the committed block, the caller holds the barrier write lock
+     * @param committedBlock
+     */
+    @Override
+    protected void startBlock(Block committedBlock) {
+        lastBlock = committedBlock;
+        committedAccounts = committedBlock.getAccountBalanceMap();
+        for (Shard shard : shards) {
+            shard.accounts.clear();
+            shard.transactions.clear();
+        }
+        pendingTransactionIds.clear();
+        reservedTransactions.set(0);
+        uncommittedOpenedAt.set(0);
+    }
+
+    private Shard shardOf(String address) {
+        return shards[Math.floorMod(address.hashCode(), shards.length)];
+    }
+
+    private Account getAccount(Shard shard, String address) {
+        Account account = shard.accounts.get(address);
+        return account != null ? account : committedAccounts.get(address);
+    }
+
+    /**
+     * Get an account owned by the shard, copying it from the committed state on first write
+     */
+    private Account getAccountForUpdate(Shard shard, String address) {
+        Account account = shard.accounts.get(address);
+        if (account == null) {
+            account = committedAccounts.get(address).clone();
+            shard.accounts.put(address, account);
+        }
+        return account;
+    }
+}
@@ -0,0 +1,237 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.PersistentAccountMap;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Store of account-state snapshots taken at sealed blocks
+ * Follows Single Responsibility Principle by handling only snapshot persistence
+ *
+ * A snapshot holds the block number, hash and previous hash of a sealed block and every account of its
+ * state, followed by a CRC32 of the whole file. Sealed account state is immutable, so a snapshot is
+ * written on a background thread from the block's map without copying it. Files are written under a
+ * temporary name and renamed into place, the two newest are kept. A snapshot that cannot be written is
+ * counted and its reason kept for the owner to report, it only makes the next startup replay more blocks.
+ */
+public class SnapshotStore {
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int MAGIC = 0x4C534E50;
+    private static final int FORMAT_VERSION = 1;
+    private static final int SNAPSHOTS_KEPT = 2;
+
+    private final Path directory;
+    private final ExecutorService writer;
+    private final AtomicLong failedSnapshots = new AtomicLong();
+    private final AtomicReference<String> failure = new AtomicReference<>();
+
+    /**
+     * Account state of a sealed block read back from a snapshot
+     */
+    public static class Snapshot {
+        private final int blockNumber;
+        private final String hash;
+        private final String previousHash;
+        private final PersistentAccountMap accounts;
+
+        Snapshot(int blockNumber, String hash, String previousHash, PersistentAccountMap accounts) {
+            this.blockNumber = blockNumber;
+            this.hash = hash;
+            this.previousHash = previousHash;
+            this.accounts = accounts;
+        }
+
+        public int getBlockNumber() {
+            return blockNumber;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public String getPreviousHash() {
+            return previousHash;
+        }
+
+        public PersistentAccountMap getAccounts() {
+            return accounts;
+        }
+    }
+
+    public SnapshotStore(Path directory) {
+        this.directory = directory;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-snapshot-" + directory.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Write a snapshot of the given sealed block in the background
+     * @param block
+     * @param beforeWrite run on the snapshot thread first, used to make the block itself durable
+     */
+    public void writeAsync(Block block, Runnable beforeWrite) {
+        int blockNumber = block.getBlockNumber();
+        String hash = block.getHash();
+        String previousHash = block.getPreviousHash();
+        Map<String, Account> accounts = block.getAccountBalanceMap();
+
+        writer.execute(() -> {
+            try {
+                beforeWrite.run();
+                write(blockNumber, hash, previousHash, accounts);
+            } catch (IOException | RuntimeException e) {
+                failedSnapshots.incrementAndGet();
+                failure.set("Snapshot Not Written: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Getter method for the number of snapshots that could not be written
+     * @return
+     */
+    public long getFailedSnapshots() {
+        return failedSnapshots.get();
+    }
+
+    /**
+     * Take the reason the latest snapshot could not be written, clearing it
+     * @return String or Null if no snapshot failed since the last call
+     */
+    public String takeFailure() {
+        return failure.getAndSet(null);
+    }
+
+    /**
+     * Load the newest intact snapshot
+     * @return Snapshot or Null if there is none
+     */
+    public Snapshot loadLatest() throws IOException {
+        for (Path path : list().reversed()) {
+            Snapshot snapshot = read(path);
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Wait for pending snapshots and stop the background thread
+     */
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(int blockNumber, String hash, String previousHash, Map<String, Account> accounts)
+            throws IOException {
+        Path temporary = directory.resolve(SNAPSHOT_PREFIX + "tmp");
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream file = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(file, crc));
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(blockNumber);
+            writeString(out, hash);
+            writeString(out, previousHash);
+            out.writeInt(accounts.size());
+            for (Account account : accounts.values()) {
+                writeString(out, account.getAddress());
+                out.writeInt(account.getBalance());
+            }
+            out.flush();
+            new DataOutputStream(file).writeInt((int) crc.getValue());
+            file.flush();
+            channel.force(true);
+        }
+
+        Files.move(temporary, directory.resolve(String.format("%s%010d%s", SNAPSHOT_PREFIX, blockNumber,
+                SNAPSHOT_SUFFIX)), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        List<Path> snapshots = list();
+        for (int i = 0; i < snapshots.size() - SNAPSHOTS_KEPT; i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+    }
+
+    private Snapshot read(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < 4) {
+            return null;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.limit() - 4);
+        if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)) {
+            return null;
+        }
+        if (buffer.getInt() != MAGIC || buffer.get() != FORMAT_VERSION) {
+            return null;
+        }
+
+        int blockNumber = buffer.getInt();
+        String hash = readString(buffer);
+        String previousHash = readString(buffer);
+        int accountCount = buffer.getInt();
+        PersistentAccountMap accounts = PersistentAccountMap.empty();
+        for (int i = 0; i < accountCount; i++) {
+            String address = readString(buffer);
+            accounts = accounts.with(address, new Account(address, buffer.getInt()));
+        }
+        return new Snapshot(blockNumber, hash, previousHash, accounts);
+    }
+
+    private List<Path> list() throws IOException {
+        try (Stream<Path> stream = Files.list(directory)) {
+            return stream.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,244 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Transaction;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Canonical binary encoding of a Transaction, used for BINARY Merkle leaves, the block log and the
+ * transaction log
+ *
+ * Layout: version byte, then the transaction id, a zigzag varint amount, a zigzag varint fee and the note,
+ * payer address and receiver address. Strings are a varint byte length followed by UTF-8. Transactions are
+ * written into a reusable Buffer, one is kept per thread, so encoding allocates nothing once it is warm.
+ */
+public final class TransactionCodec {
+    public static final int FORMAT_VERSION = 1;
+
+    private static final ThreadLocal<Buffer> THREAD_BUFFER = ThreadLocal.withInitial(Buffer::new);
+
+    private TransactionCodec() {
+    }
+
+    /**
+     * Growable byte buffer reused across encodings
+     */
+    public static final class Buffer {
+        private byte[] bytes = new byte[128];
+        private int length;
+
+        public byte[] array() {
+            return bytes;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public void clear() {
+            length = 0;
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            bytes[length++] = (byte) value;
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            String text = value == null ? "" : value;
+            int utf8Length = utf8Length(text);
+            writeVarint(utf8Length);
+            ensure(utf8Length);
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[length++] = (byte) (0xC0 | (c >> 6));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // Unpaired surrogate, encoded as '?' like String.getBytes
+                    bytes[length++] = (byte) '?';
+                } else {
+                    bytes[length++] = (byte) (0xE0 | (c >> 12));
+                    bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+
+    /**
+     * Get the calling thread's buffer, cleared
+     * @return Buffer
+     */
+    public static Buffer threadBuffer() {
+        Buffer buffer = THREAD_BUFFER.get();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Append the encoding of a transaction to the buffer
+     * @param transaction
+     * @param buffer
+     */
+    public static void encode(Transaction transaction, Buffer buffer) {
+        buffer.writeByte(FORMAT_VERSION);
+        buffer.writeString(transaction.getTransactionId());
+        buffer.writeVarint(zigzag(transaction.getAmount()));
+        buffer.writeVarint(zigzag(transaction.getFee()));
+        buffer.writeString(transaction.getNote());
+        buffer.writeString(transaction.getPayer() == null ? null : transaction.getPayer().getAddress());
+        buffer.writeString(transaction.getReceiver() == null ? null : transaction.getReceiver().getAddress());
+    }
+
+    /**
+     * Number of bytes the encoding of a transaction takes
+     * @param transaction
+     * @return int
+     */
+    public static int encodedLength(Transaction transaction) {
+        return 1 + stringLength(transaction.getTransactionId())
+                + varintLength(zigzag(transaction.getAmount()))
+                + varintLength(zigzag(transaction.getFee()))
+                + stringLength(transaction.getNote())
+                + stringLength(transaction.getPayer() == null ? null : transaction.getPayer().getAddress())
+                + stringLength(transaction.getReceiver() == null ? null : transaction.getReceiver().getAddress());
+    }
+
+    /**
+     * Decode a transaction
+     * @param buffer positioned at the start of the encoding, advanced past it
+     * @param accounts resolves the payer and receiver addresses to accounts
+     * @return Transaction
+     */
+    public static Transaction decode(ByteBuffer buffer, Function<String, Account> accounts) {
+        checkVersion(buffer);
+        String transactionId = readString(buffer);
+        int amount = unzigzag(readVarint(buffer));
+        int fee = unzigzag(readVarint(buffer));
+        String note = readString(buffer);
+        Account payer = accounts.apply(readString(buffer));
+        Account receiver = accounts.apply(readString(buffer));
+        return new Transaction(transactionId, amount, fee, note, payer, receiver);
+    }
+
+    /**
+     * Read only the transaction id, payer address and receiver address of an encoding
+     * @param buffer positioned at the start of the encoding, left unchanged
+     * @return {id, payer, receiver}
+     */
+    public static String[] readKey(ByteBuffer buffer) {
+        ByteBuffer view = buffer.duplicate();
+        checkVersion(view);
+        String transactionId = readString(view);
+        readVarint(view);
+        readVarint(view);
+        int noteLength = (int) readVarint(view);
+        view.position(view.position() + noteLength);
+        return new String[] {transactionId, readString(view), readString(view)};
+    }
+
+    static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed Varint");
+    }
+
+    private static void checkVersion(ByteBuffer buffer) {
+        int version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported Transaction Format Version: " + version);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = (int) readVarint(buffer);
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    private static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    private static int unzigzag(long value) {
+        int encoded = (int) value;
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+
+    private static int varintLength(long value) {
+        int length = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
+    private static int stringLength(String value) {
+        int utf8Length = utf8Length(value == null ? "" : value);
+        return varintLength(utf8Length) + utf8Length;
+    }
+
+    private static int utf8Length(String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
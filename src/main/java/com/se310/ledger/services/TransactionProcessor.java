@@ -2,111 +2,381 @@ package com.se310.ledger.services;
 
 import com.se310.ledger.Account;
 import com.se310.ledger.Block;
+import com.se310.ledger.BlockSealingPolicy;
 import com.se310.ledger.LedgerException;
+import com.se310.ledger.MetricsStage;
 import com.se310.ledger.Transaction;
+import com.se310.ledger.TransactionResult;
 import com.se310.ledger.interfaces.BlockchainRepository;
 import com.se310.ledger.interfaces.HashGenerator;
 import com.se310.ledger.interfaces.TransactionValidator;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 /**
  * Service for processing transactions
  * Follows Single Responsibility Principle by handling only transaction processing
+ *
+ * Transactions are applied one at a time under the processor lock. Each seal publishes a CommittedState
+ * of the sealed block through a volatile field, readers take the current view without the processor lock.
+ *
+ * With a ParallelTransactionExecutor, batches of at least PARALLEL_BATCH_THRESHOLD transactions are
+ * executed speculatively in parallel first and then applied in order, see ParallelTransactionExecutor.
+ *
+ * Stage latencies and transaction outcomes go to a MetricsRegistry, which records nothing unless one
+ * is set. Block commits and rejections are also emitted as Flight Recorder events.
  */
-public class TransactionProcessor {
-    private final TransactionValidator transactionValidator;
-    private final BlockchainRepository blockchainRepository;
-    private final HashGenerator hashGenerator;
-    private final String seed;
-    private Block uncommittedBlock;
+public class TransactionProcessor extends AbstractTransactionProcessor {
+    private static final int PARALLEL_BATCH_THRESHOLD = 64;
+
+    private volatile Block uncommittedBlock;
+    private long uncommittedBytes;
+    private long uncommittedOpenedAt;
+    private long loggedPosition;
+    private ParallelTransactionExecutor parallelExecutor;
 
     public TransactionProcessor(TransactionValidator transactionValidator,
                                BlockchainRepository blockchainRepository,
                                HashGenerator hashGenerator,
                                String seed,
                                Block uncommittedBlock) {
-        this.transactionValidator = transactionValidator;
-        this.blockchainRepository = blockchainRepository;
-        this.hashGenerator = hashGenerator;
-        this.seed = seed;
+        this(transactionValidator, blockchainRepository, hashGenerator, seed, uncommittedBlock,
+                new BlockSealingPolicy());
+    }
+
+    public TransactionProcessor(TransactionValidator transactionValidator,
+                               BlockchainRepository blockchainRepository,
+                               HashGenerator hashGenerator,
+                               String seed,
+                               Block uncommittedBlock,
+                               BlockSealingPolicy sealingPolicy) {
+        super(transactionValidator, blockchainRepository, hashGenerator, seed, sealingPolicy);
         this.uncommittedBlock = uncommittedBlock;
     }
 
-    public synchronized String processTransaction(Transaction transaction) throws LedgerException {
+    /**
+     * Create an account in the uncommitted block
+     * Runs under the processor lock so the account cannot land in a block that is being sealed
+     * @param address
+     * @return Account
+     * @throws LedgerException if the account already exists
+     */
+    @Override
+    public Account createAccount(String address) throws LedgerException {
+        Account account = new Account(address, 0);
+        long position;
+        synchronized (this) {
+            if (uncommittedBlock.getAccount(address) != null) {
+                throw new LedgerException("Create Account", "Account Already Exists");
+            }
+
+            position = log(() -> writeAheadLog.appendAccount(address), "Create Account");
+            uncommittedBlock.addAccount(address, account);
+        }
+        awaitDurable(position, "Create Account");
+        return account;
+    }
+
+    /**
+     * Process a transaction, returning once it is accepted and recorded in the transaction log
+     * The wait for the log runs outside the processor lock so concurrent callers share fsyncs
+     * @param transaction
+     * @return String representing transaction id
+     * @throws LedgerException
+     */
+    @Override
+    public String processTransaction(Transaction transaction) throws LedgerException {
+        String transactionId;
+        long position;
+        synchronized (this) {
+            try {
+                transactionId = applyTransaction(transaction, System.nanoTime());
+            } catch (LedgerException e) {
+                recordRejected(transaction, e.getReason());
+                throw e;
+            }
+            metricsRegistry.recordAccepted();
+            position = loggedPosition;
+        }
+        awaitDurable(position, "Process Transaction");
+        return transactionId;
+    }
+
+    /**
+     * Process a batch of transactions under a single lock acquisition
+     * Transactions are validated and applied in order, each one seeing the balances left by the
+     * accepted transactions before it. A rejected transaction does not stop the rest of the batch,
+     * and blocks are sealed as the batch fills them.
+     * @param transactions
+     * @return List of results in batch order
+     */
+    @Override
+    public List<TransactionResult> processTransactions(List<Transaction> transactions) {
+        List<TransactionResult> results = new ArrayList<>(transactions.size());
+        long position;
+
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (parallelExecutor != null && transactions.size() >= PARALLEL_BATCH_THRESHOLD) {
+                applySpeculatively(transactions, now, results);
+            } else {
+                for (Transaction transaction : transactions) {
+                    try {
+                        applyTransaction(transaction, now);
+                        metricsRegistry.recordAccepted();
+                        results.add(new TransactionResult(transaction.getTransactionId(), null));
+                    } catch (LedgerException e) {
+                        recordRejected(transaction, e.getReason());
+                        results.add(new TransactionResult(transaction.getTransactionId(), e.getReason()));
+                    }
+                }
+            }
+            position = loggedPosition;
+        }
+
+        // One durability wait covers the whole batch
+        awaitDurable(position, results);
+        return results;
+    }
+
+    @Override
+    protected void replayAccount(String address) {
+        if (uncommittedBlock.getAccount(address) == null) {
+            uncommittedBlock.addAccount(address, new Account(address, 0));
+        }
+    }
+
+    @Override
+    protected void replayTransaction(Transaction transaction) throws LedgerException {
+        applyTransaction(transaction, System.nanoTime());
+    }
+
+    /**
+     * Execute large batches speculatively on the given executor, or sequentially when it is null
+     * @param parallelExecutor
+     */
+    public synchronized void setParallelExecutor(ParallelTransactionExecutor parallelExecutor) {
+        this.parallelExecutor = parallelExecutor;
+    }
+
+    public ParallelTransactionExecutor getParallelExecutor() {
+        return parallelExecutor;
+    }
+
+    /**
+     * Stop the parallel executor and release the transaction log
+     */
+    @Override
+    public void close() {
+        if (parallelExecutor != null) {
+            parallelExecutor.close();
+        }
+        super.close();
+    }
+
+    private String applyTransaction(Transaction transaction, long now) throws LedgerException {
+        // Resolve accounts against the current block state
+        if (transaction.getPayer() == null || transaction.getReceiver() == null) {
+            throw new LedgerException("Process Transaction", "Account Does Not Exist");
+        }
+        Account payer = uncommittedBlock.getAccount(transaction.getPayer().getAddress());
+        Account receiver = uncommittedBlock.getAccount(transaction.getReceiver().getAddress());
+        if (payer == null || receiver == null) {
+            throw new LedgerException("Process Transaction", "Account Does Not Exist");
+        }
+        transaction.setPayer(payer);
+        transaction.setReceiver(receiver);
+
         // Validate transaction
         String validationError = transactionValidator.getValidationError(transaction);
         if (validationError != null) {
             throw new LedgerException("Process Transaction", validationError);
         }
 
-        // Check for duplicate transaction ID
-        if (blockchainRepository.getTransaction(transaction.getTransactionId()) != null) {
+        // Check for duplicate transaction ID across committed and uncommitted blocks
+        long startTime = metricsRegistry.startTimer();
+        boolean duplicate = blockchainRepository.containsTransaction(transaction.getTransactionId());
+        metricsRegistry.recordLatency(MetricsStage.DUPLICATE_CHECK, startTime);
+        if (duplicate) {
             throw new LedgerException("Process Transaction", "Transaction Id Must Be Unique");
         }
 
+        long transactionBytes = sealingPolicy.getMaxBytes() > 0 ? sealingPolicy.sizeOf(transaction) : 0;
+        appendTransaction(transaction, transactionBytes, now, null);
+        return transaction.getTransactionId();
+    }
+
+    /**
+     * Apply a batch from its speculative execution, in batch order
+     * A transaction is executed again when an earlier accepted transaction of the batch wrote its payer,
+     * otherwise the payer balance it read is still current and its outcome stands
+     */
+    private void applySpeculatively(List<Transaction> transactions, long now, List<TransactionResult> results) {
+        ParallelTransactionExecutor.Speculation[] speculations = parallelExecutor.speculate(transactions,
+                uncommittedBlock, sealingPolicy, writeAheadLog != null);
+        Set<String> writtenAccounts = new HashSet<>();
+
+        for (int i = 0; i < speculations.length; i++) {
+            Transaction transaction = transactions.get(i);
+            ParallelTransactionExecutor.Speculation speculation = speculations[i];
+            if (speculation.payer != null && writtenAccounts.contains(speculation.payer.getAddress())) {
+                parallelExecutor.reexecute(transaction, speculation, uncommittedBlock, sealingPolicy,
+                        writeAheadLog != null);
+            }
+
+            String error = speculation.error;
+            if (error == null) {
+                long startTime = metricsRegistry.startTimer();
+                if (blockchainRepository.containsTransaction(transaction.getTransactionId())) {
+                    error = "Transaction Id Must Be Unique";
+                }
+                metricsRegistry.recordLatency(MetricsStage.DUPLICATE_CHECK, startTime);
+            }
+            if (error == null) {
+                try {
+                    appendTransaction(transaction, speculation.transactionBytes, now, speculation.logRecord);
+                    writtenAccounts.add(speculation.payer.getAddress());
+                    writtenAccounts.add(speculation.receiver.getAddress());
+                } catch (LedgerException e) {
+                    error = e.getReason();
+                }
+            }
+            if (error == null) {
+                metricsRegistry.recordAccepted();
+            } else {
+                recordRejected(transaction, error);
+            }
+            results.add(new TransactionResult(transaction.getTransactionId(), error));
+        }
+    }
+
+    /**
+     * Append an accepted transaction to the uncommitted block, sealing blocks as the policy requires
+     * @param transaction validated transaction with resolved accounts
+     * @param transactionBytes size counted against the block byte limit
+     * @param now
+     * @param logRecord encoded log record, or null to encode it here
+     */
+    private void appendTransaction(Transaction transaction, long transactionBytes, long now, byte[] logRecord)
+            throws LedgerException {
+        // Seal the current block first if it lingered too long, this transaction would overflow it, or an
+        // earlier seal of a full block failed
+        if (!uncommittedBlock.getTransactionList().isEmpty()
+                && (sealingPolicy.isExpired(uncommittedOpenedAt, now)
+                    || sealingPolicy.wouldOverflow(uncommittedBytes, transactionBytes)
+                    || sealingPolicy.isFull(uncommittedBlock.getTransactionList().size()))) {
+            commitBlock();
+        }
+
+        // Record the transaction before applying it
+        loggedPosition = log(() -> logRecord != null
+                ? writeAheadLog.appendTransactionRecord(logRecord)
+                : writeAheadLog.appendTransaction(transaction), "Process Transaction");
+
         // Process the transaction
+        long startTime = metricsRegistry.startTimer();
         executeTransaction(transaction);
+        metricsRegistry.recordLatency(MetricsStage.EXECUTION, startTime);
+        if (uncommittedBlock.getTransactionList().isEmpty()) {
+            uncommittedOpenedAt = now;
+        }
         uncommittedBlock.getTransactionList().add(transaction);
+        uncommittedBytes += transactionBytes;
+        blockchainRepository.addPendingTransaction(transaction, uncommittedBlock.getBlockNumber(),
+                uncommittedBlock.getTransactionList().size() - 1);
 
         // Check if block is full and needs to be committed
-        if (uncommittedBlock.getTransactionList().size() == 10) {
-            commitBlock();
+        if (sealingPolicy.isFull(uncommittedBlock.getTransactionList().size())) {
+            try {
+                commitBlock();
+            } catch (LedgerException e) {
+                // This transaction is accepted and logged, the seal is retried before the next one is appended
+            }
         }
+    }
 
-        return transaction.getTransactionId();
+    /**
+     * Seal the uncommitted block if its first transaction has waited longer than the policy allows
+     * @return true if a block was committed
+     * @throws LedgerException
+     */
+    @Override
+    public synchronized boolean sealExpiredBlock() throws LedgerException {
+        if (!uncommittedBlock.getTransactionList().isEmpty()
+                && sealingPolicy.isExpired(uncommittedOpenedAt, System.nanoTime())) {
+            commitBlock();
+            return true;
+        }
+        return false;
     }
 
     private void executeTransaction(Transaction transaction) {
-        Account payerAccount = transaction.getPayer();
-        Account receiverAccount = transaction.getReceiver();
+        // Copy accounts shared with the previous block before modifying them
+        Account payerAccount = uncommittedBlock.getAccountForUpdate(transaction.getPayer().getAddress());
+        Account receiverAccount = uncommittedBlock.getAccountForUpdate(transaction.getReceiver().getAddress());
+        transaction.setPayer(payerAccount);
+        transaction.setReceiver(receiverAccount);
 
         // Deduct balance from payer
         payerAccount.setBalance(payerAccount.getBalance() - transaction.getAmount() - transaction.getFee());
-        
+
         // Increase balance of receiver
         receiverAccount.setBalance(receiverAccount.getBalance() + transaction.getAmount());
     }
 
-    private void commitBlock() throws LedgerException {
-        List<String> tempTxList = new ArrayList<>();
-        tempTxList.add(seed);
-
-        // Add transaction strings for hashing
-        for (Transaction tempTx : uncommittedBlock.getTransactionList()) {
-            tempTxList.add(tempTx.toString());
-        }
-
-        // Generate hash
-        String hash = hashGenerator.generateHash(tempTxList);
-        uncommittedBlock.setHash(hash);
-
-        // Commit block
-        blockchainRepository.addBlock(uncommittedBlock);
+    @Override
+    protected Block completeBlock() {
+        return uncommittedBlock;
+    }
 
-        // Create next block
-        Block committedBlock = blockchainRepository.getLastBlock();
-        Map<String, Account> accountMap = committedBlock.getAccountBalanceMap();
-        List<Account> accountList = new ArrayList<>(accountMap.values());
+    /**
+     * Create next block sharing account state with the committed block
+     * @param committedBlock
+     */
+    @Override
+    protected void startBlock(Block committedBlock) {
+        uncommittedBlock = new Block(committedBlock.getBlockNumber() + 1, committedBlock);
+        uncommittedBytes = 0;
+    }
 
-        uncommittedBlock = new Block(uncommittedBlock.getBlockNumber() + 1, committedBlock.getHash());
+    /**
+     * Get an account from the state the next block starts from
+     * The returned Account may be shared with committed blocks and must not be modified
+     * @param address
+     * @return Account or Null
+     */
+    @Override
+    public Account getAccount(String address) {
+        return uncommittedBlock.getAccount(address);
+    }
 
-        // Replicate accounts
-        for (Account account : accountList) {
-            Account tempAccount = account.clone();
-            uncommittedBlock.addAccount(tempAccount.getAddress(), tempAccount);
-        }
+    /**
+     * Check if an account exists in the state the next block starts from
+     * @param address
+     * @return
+     */
+    @Override
+    public synchronized boolean containsAccount(String address) {
+        return uncommittedBlock.getAccount(address) != null;
+    }
 
-        // Link to previous block
-        uncommittedBlock.setPreviousBlock(committedBlock);
+    /**
+     * Getter method for the number of accounts, including those created since the last seal
+     * @return
+     */
+    @Override
+    public synchronized int getAccountCount() {
+        return uncommittedBlock.getAccountBalanceMap().size();
     }
 
+    /**
+     * Getter method for the uncommitted block, its accounts hold the balances left by every accepted transaction
+     * @return
+     */
+    @Override
     public Block getUncommittedBlock() {
         return uncommittedBlock;
     }
-
-    public void setUncommittedBlock(Block uncommittedBlock) {
-        this.uncommittedBlock = uncommittedBlock;
-    }
 }
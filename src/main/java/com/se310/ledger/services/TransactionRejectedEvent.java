@@ -0,0 +1,39 @@
+package com.se310.ledger.services;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a transaction the processor rejected
+ */
+@Name("com.se310.ledger.TransactionRejected")
+@Label("Transaction Rejected")
+@Category("Ledger")
+@Description("A transaction failed validation, the duplicate id check or logging")
+@StackTrace(false)
+class TransactionRejectedEvent extends Event {
+
+    @Label("Transaction Id")
+    String transactionId;
+
+    @Label("Reason")
+    String reason;
+
+    /**
+     * Emit the event if it is enabled, the event object does not escape so nothing is allocated otherwise
+     * @param transactionId
+     * @param reason
+     */
+    static void emit(String transactionId, String reason) {
+        TransactionRejectedEvent event = new TransactionRejectedEvent();
+        if (event.shouldCommit()) {
+            event.transactionId = transactionId;
+            event.reason = reason;
+            event.commit();
+        }
+    }
+}
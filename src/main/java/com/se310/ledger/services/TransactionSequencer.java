@@ -0,0 +1,153 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.BackpressurePolicy;
+import com.se310.ledger.LedgerException;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.TransactionResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-writer sequencer in front of TransactionProcessor
+ * Producer threads enqueue transactions into a lock-free ring buffer and receive a future,
+ * one sequencer thread drains the buffer in batches and applies each batch through
+ * TransactionProcessor.processTransactions, so producers never contend on the processor lock
+ */
+public class TransactionSequencer {
+    private static final long IDLE_PARK_NANOS = 100_000;
+    private static final long FULL_PARK_NANOS = 10_000;
+
+    private final AbstractTransactionProcessor transactionProcessor;
+    private final MpscRingBuffer<PendingTransaction> queue;
+    private final BackpressurePolicy backpressurePolicy;
+    private final int maxBatchSize;
+    private final Thread sequencerThread;
+    private volatile boolean running = true;
+    private volatile boolean idle;
+
+    public TransactionSequencer(AbstractTransactionProcessor transactionProcessor, int queueCapacity,
+                                int maxBatchSize, BackpressurePolicy backpressurePolicy, String name) {
+        this.transactionProcessor = transactionProcessor;
+        this.queue = new MpscRingBuffer<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.backpressurePolicy = backpressurePolicy;
+        this.sequencerThread = new Thread(this::run, "ledger-sequencer-" + name);
+        this.sequencerThread.setDaemon(true);
+        this.sequencerThread.start();
+    }
+
+    /**
+     * Enqueue a transaction for processing
+     * @param transaction
+     * @return future completed with the transaction id, or exceptionally with a LedgerException
+     * @throws LedgerException if the queue is full and the policy is FAIL, or the sequencer is stopped
+     */
+    public CompletableFuture<String> submit(Transaction transaction) throws LedgerException {
+        if (!running) {
+            throw new LedgerException("Submit Transaction", "Sequencer Is Stopped");
+        }
+
+        PendingTransaction pending = new PendingTransaction(transaction);
+        while (!queue.offer(pending)) {
+            switch (backpressurePolicy) {
+                case FAIL -> throw new LedgerException("Submit Transaction", "Queue Is Full");
+                case DROP -> {
+                    pending.future.completeExceptionally(
+                            new LedgerException("Submit Transaction", "Queue Is Full, Transaction Dropped"));
+                    return pending.future;
+                }
+                case BLOCK -> {
+                    if (!running) {
+                        throw new LedgerException("Submit Transaction", "Sequencer Is Stopped");
+                    }
+                    LockSupport.parkNanos(FULL_PARK_NANOS);
+                }
+            }
+        }
+
+        if (idle) {
+            LockSupport.unpark(sequencerThread);
+        }
+        if (!running && !sequencerThread.isAlive()) {
+            pending.future.completeExceptionally(new LedgerException("Submit Transaction", "Sequencer Is Stopped"));
+        }
+        return pending.future;
+    }
+
+    /**
+     * Number of transactions waiting for the sequencer
+     * @return
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Stop the sequencer after it has processed every transaction already enqueued
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(sequencerThread);
+        try {
+            sequencerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<PendingTransaction> batch = new ArrayList<>(maxBatchSize);
+        List<Transaction> transactions = new ArrayList<>(maxBatchSize);
+
+        while (running || !queue.isEmpty()) {
+            if (queue.drainTo(batch, maxBatchSize) == 0) {
+                // Announce idleness before the final check so a producer cannot miss the wake-up
+                idle = true;
+                if (queue.isEmpty() && running) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                idle = false;
+                continue;
+            }
+
+            for (PendingTransaction pending : batch) {
+                transactions.add(pending.transaction);
+            }
+
+            List<TransactionResult> results;
+            try {
+                results = transactionProcessor.processTransactions(transactions);
+            } catch (RuntimeException e) {
+                for (PendingTransaction pending : batch) {
+                    pending.future.completeExceptionally(e);
+                }
+                batch.clear();
+                transactions.clear();
+                continue;
+            }
+
+            for (int i = 0; i < batch.size(); i++) {
+                TransactionResult result = results.get(i);
+                if (result.isAccepted()) {
+                    batch.get(i).future.complete(result.getTransactionId());
+                } else {
+                    batch.get(i).future.completeExceptionally(
+                            new LedgerException("Process Transaction", result.getReason()));
+                }
+            }
+            batch.clear();
+            transactions.clear();
+        }
+    }
+
+    private static class PendingTransaction {
+        private final Transaction transaction;
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+
+        PendingTransaction(Transaction transaction) {
+            this.transaction = transaction;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.se310.ledger.services;
 
+import com.se310.ledger.MetricsStage;
 import com.se310.ledger.Transaction;
+import com.se310.ledger.interfaces.MetricsRegistry;
 import com.se310.ledger.interfaces.TransactionValidator;
 
 /**
@@ -9,6 +11,20 @@ import com.se310.ledger.interfaces.TransactionValidator;
  */
 public class TransactionValidatorImpl implements TransactionValidator {
 
+    private final MetricsRegistry metricsRegistry;
+
+    public TransactionValidatorImpl() {
+        this(NoOpMetricsRegistry.INSTANCE);
+    }
+
+    /**
+     * Validator recording the latency of every validation
+     * @param metricsRegistry
+     */
+    public TransactionValidatorImpl(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
     @Override
     public boolean isValid(Transaction transaction) {
         return getValidationError(transaction) == null;
@@ -16,6 +32,13 @@ public class TransactionValidatorImpl implements TransactionValidator {
 
     @Override
     public String getValidationError(Transaction transaction) {
+        long startTime = metricsRegistry.startTimer();
+        String validationError = validate(transaction);
+        metricsRegistry.recordLatency(MetricsStage.VALIDATION, startTime);
+        return validationError;
+    }
+
+    private static String validate(Transaction transaction) {
         if (transaction.getAmount() < 0 || transaction.getAmount() == Integer.MAX_VALUE) {
             return "Transaction Amount Is Out of Range";
         }
@@ -0,0 +1,253 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Transaction;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log for the work held in the uncommitted block
+ * Follows Single Responsibility Principle by handling only durability of accepted work
+ *
+ * Accepted transactions and created accounts are appended as [int length][int crc32][payload] records
+ * while the processor lock is held. Callers then wait for durability outside that lock: the first waiter
+ * becomes the leader, optionally lingers for the group commit window, and forces every record written so
+ * far, so all threads waiting meanwhile share one fsync. Positions are logical and keep growing across
+ * checkpoints, which truncate the file once the block log holds everything it covers.
+ * Transactions are written in their TransactionCodec encoding.
+ */
+public class WriteAheadLog {
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final byte ACCOUNT_RECORD = 1;
+    private static final byte TRANSACTION_RECORD = 2;
+
+    private final FileChannel channel;
+    private final long groupCommitNanos;
+    private final Object syncMonitor = new Object();
+    private long baseOffset;
+    private long fileSize;
+    private volatile long writtenPosition;
+    private long durablePosition;
+    private boolean syncInProgress;
+
+    /**
+     * Receives the records found in the log when it is opened
+     */
+    public interface ReplayHandler {
+        void account(String address);
+        void transaction(Transaction transaction);
+    }
+
+    public WriteAheadLog(Path path, long groupCommitMicros) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.groupCommitNanos = groupCommitMicros * 1_000L;
+        this.fileSize = channel.size();
+    }
+
+    /**
+     * Replay every intact record in order and truncate a torn tail
+     * @param handler
+     */
+    public synchronized void replay(ReplayHandler handler) throws IOException {
+        ByteBuffer log = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE));
+        while (log.hasRemaining()) {
+            if (channel.read(log, log.position()) < 0) {
+                break;
+            }
+        }
+        log.flip();
+
+        long offset = 0;
+        while (offset + RECORD_HEADER_BYTES <= log.limit()) {
+            int length = log.getInt((int) offset);
+            if (length <= 0 || offset + RECORD_HEADER_BYTES + length > log.limit()) {
+                break;
+            }
+            ByteBuffer payload = log.slice((int) offset + RECORD_HEADER_BYTES, length);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != log.getInt((int) offset + 4)) {
+                break;
+            }
+
+            byte recordType = payload.get();
+            if (recordType == ACCOUNT_RECORD) {
+                handler.account(readString(payload));
+            } else if (recordType == TRANSACTION_RECORD) {
+                handler.transaction(TransactionCodec.decode(payload, address -> new Account(address, 0)));
+            } else {
+                break;
+            }
+            offset += RECORD_HEADER_BYTES + length;
+        }
+
+        if (offset < channel.size()) {
+            channel.truncate(offset);
+            channel.force(false);
+        }
+        fileSize = offset;
+        writtenPosition = offset;
+        synchronized (syncMonitor) {
+            durablePosition = offset;
+        }
+    }
+
+    /**
+     * Append the creation of an account
+     * @param address
+     * @return log position to wait for with awaitDurable
+     */
+    public long appendAccount(String address) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(ACCOUNT_RECORD);
+            writeString(out, address);
+        }
+        byte[] payload = bytes.toByteArray();
+        return append(payload, payload.length);
+    }
+
+    /**
+     * Append an accepted transaction
+     * @param transaction
+     * @return log position to wait for with awaitDurable
+     */
+    public long appendTransaction(Transaction transaction) throws IOException {
+        TransactionCodec.Buffer buffer = TransactionCodec.threadBuffer();
+        buffer.writeByte(TRANSACTION_RECORD);
+        TransactionCodec.encode(transaction, buffer);
+        return append(buffer.array(), buffer.length());
+    }
+
+    /**
+     * Encode the record of a transaction ahead of appending it, so encoding can run off the processor lock
+     * @param transaction
+     * @return record payload for appendTransactionRecord
+     */
+    public static byte[] encodeTransaction(Transaction transaction) {
+        TransactionCodec.Buffer buffer = TransactionCodec.threadBuffer();
+        buffer.writeByte(TRANSACTION_RECORD);
+        TransactionCodec.encode(transaction, buffer);
+        return Arrays.copyOf(buffer.array(), buffer.length());
+    }
+
+    /**
+     * Append a transaction record produced by encodeTransaction
+     * @param record
+     * @return log position to wait for with awaitDurable
+     */
+    public long appendTransactionRecord(byte[] record) throws IOException {
+        return append(record, record.length);
+    }
+
+    private synchronized long append(byte[] payload, int length) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, length);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + length);
+        record.putInt(length).putInt((int) crc.getValue()).put(payload, 0, length).flip();
+
+        while (record.hasRemaining()) {
+            fileSize += channel.write(record, fileSize);
+        }
+        writtenPosition = baseOffset + fileSize;
+        return writtenPosition;
+    }
+
+    /**
+     * Block until every record up to the given position is on disk, sharing fsyncs with other waiters
+     * Must not be called while holding the processor lock
+     * @param position
+     */
+    public void awaitDurable(long position) throws IOException {
+        while (true) {
+            synchronized (syncMonitor) {
+                while (durablePosition < position && syncInProgress) {
+                    try {
+                        syncMonitor.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted While Waiting for Transaction Log", e);
+                    }
+                }
+                if (durablePosition >= position) {
+                    return;
+                }
+                syncInProgress = true;
+            }
+
+            // Leader: let concurrent appends join this sync before forcing
+            long target = writtenPosition;
+            boolean synced = false;
+            try {
+                if (groupCommitNanos > 0) {
+                    LockSupport.parkNanos(groupCommitNanos);
+                    target = writtenPosition;
+                }
+                channel.force(false);
+                synced = true;
+            } finally {
+                synchronized (syncMonitor) {
+                    if (synced) {
+                        durablePosition = Math.max(durablePosition, target);
+                    }
+                    syncInProgress = false;
+                    syncMonitor.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Getter method for the number of bytes held in the log file
+     * @return
+     */
+    public synchronized long size() {
+        return fileSize;
+    }
+
+    /**
+     * Drop every record, called once the block log durably holds all of them
+     */
+    public synchronized void checkpoint() throws IOException {
+        channel.truncate(0);
+        channel.force(false);
+        baseOffset += fileSize;
+        fileSize = 0;
+        synchronized (syncMonitor) {
+            durablePosition = Math.max(durablePosition, baseOffset);
+            syncMonitor.notifyAll();
+        }
+    }
+
+    public void close() {
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
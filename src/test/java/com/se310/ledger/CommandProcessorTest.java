@@ -0,0 +1,83 @@
+package com.se310.ledger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Class for the command tokenizer
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public class CommandProcessorTest {
+
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("([^\"]\\S*|\".+?\")\\s*");
+
+    @Test
+    public void testTokenize() {
+        assertEquals(List.of("create-account", "mary"), tokenize("create-account mary"));
+        assertEquals(List.of("process-transaction", "1", "amount", "10", "fee", "10", "note", "lunch at noon",
+                        "payer", "master", "receiver", "mary"),
+                tokenize("process-transaction 1 amount 10 fee 10 note \"lunch at noon\" payer master receiver mary"));
+        assertEquals(List.of("a", "b", "c"), tokenize("a \t b\t\tc  "));
+        assertEquals(List.of(), tokenize(""));
+    }
+
+    @Test
+    public void testQuotes() {
+        // Quotes inside a token are dropped, a closing quote ends the token
+        assertEquals(List.of("abc"), tokenize("a\"b\"c"));
+        assertEquals(List.of("a b", "c"), tokenize("\"a b\"c"));
+        assertEquals(List.of("x", "y z"), tokenize("x \"y z\""));
+        assertEquals(List.of("a ", "b"), tokenize("\"a \"b"));
+
+        // A quoted token holds at least one character, and an unclosed quote is skipped
+        assertEquals(List.of(" x"), tokenize("\"\" x\""));
+        assertEquals(List.of("open", "note"), tokenize("open \"note"));
+
+        // There are no escapes, a backslash is kept as written and does not protect a quote
+        assertEquals(List.of("say \\", "hi\\"), tokenize("\"say \\\"hi\\\"\""));
+        assertEquals(List.of("C:\\ledger\\commands.script"), tokenize("C:\\ledger\\commands.script"));
+
+        // A quoted token does not run past the end of a line
+        assertEquals(List.of("first", "line", "second"), tokenize("\"first\nline\" second"));
+    }
+
+    @Test
+    public void testMatchesPattern() {
+        // Commands used to be split with TOKEN_PATTERN, every command must still split the same way
+        char[] alphabet = {'a', 'b', '1', ' ', ' ', '\t', '"', '"', '\\', '\n', '\r', 'é', '-'};
+        Random random = new Random(21);
+        for (int n = 0; n < 20_000; n++) {
+            StringBuilder command = new StringBuilder();
+            int length = random.nextInt(24);
+            for (int i = 0; i < length; i++) {
+                command.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            assertEquals(tokenizeWithPattern(command.toString()), tokenize(command.toString()),
+                    () -> "Command: [" + command + "]");
+        }
+    }
+
+    private static List<String> tokenize(String command) {
+        List<String> tokens = new ArrayList<>();
+        CommandProcessor.tokenize(command, tokens);
+        return tokens;
+    }
+
+    private static List<String> tokenizeWithPattern(String command) {
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = TOKEN_PATTERN.matcher(command);
+        while (matcher.find()) {
+            tokens.add(matcher.group(1).replace("\"", ""));
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,75 @@
+package com.se310.ledger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Class for resetting Ledgers hosted by a LedgerRegistry
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public class LedgerRegistryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testResetInMemory() throws LedgerException {
+        LedgerRegistry registry = new LedgerRegistry();
+        Ledger ledger = registry.createLedger("test", "description", "chapman", new LedgerConfig());
+        ledger.createAccount("mary");
+
+        Ledger replacement = registry.resetLedger("test");
+        assertNotSame(ledger, replacement);
+        assertSame(replacement, registry.getLedger("test"));
+        assertFalse(replacement.accountExists("mary"));
+        registry.closeAll();
+    }
+
+    @Test
+    public void testResetFromStorage() throws Exception {
+        Path storage = directory.resolve("ledger");
+        LedgerConfig config = new LedgerConfig();
+        config.setStorageDirectory(storage.toString());
+        LedgerRegistry registry = new LedgerRegistry();
+        Ledger ledger = registry.createLedger("test", "description", "chapman", config);
+        ledger.createAccount("mary");
+        for (int i = 0; i < 10; i++) {
+            ledger.processTransaction(new Transaction("t" + i, 100, 10, "note", new Account("master", 0),
+                    new Account("mary", 0)));
+        }
+
+        Ledger reopened = registry.resetLedger("test");
+        assertEquals(1_000, reopened.getAccountBalance("mary"));
+        assertEquals(1, reopened.getNumberOfBlocks());
+
+        // When the storage cannot be reopened the Ledger stays registered and the reset can be retried
+        deleteRecursively(storage);
+        Files.writeString(storage, "not a directory");
+        LedgerException e = assertThrows(LedgerException.class, () -> registry.resetLedger("test"));
+        assertTrue(e.getReason().startsWith("Storage Is Not Accessible"));
+        assertSame(reopened, registry.getLedger("test"));
+
+        Files.delete(storage);
+        Ledger retried = registry.resetLedger("test");
+        assertSame(retried, registry.getLedger("test"));
+        assertEquals(0, retried.getNumberOfBlocks());
+        registry.closeAll();
+    }
+
+    private static void deleteRecursively(Path path) throws Exception {
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path file : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
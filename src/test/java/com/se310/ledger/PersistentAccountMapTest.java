@@ -0,0 +1,111 @@
+package com.se310.ledger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Class for the persistent account map shared between blocks
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public class PersistentAccountMapTest {
+
+    @Test
+    public void testPutAndReplace() {
+        PersistentAccountMap empty = PersistentAccountMap.empty();
+        Account mary = new Account("mary", 100);
+        PersistentAccountMap map = empty.with("mary", mary).with("bob", new Account("bob", 50));
+
+        assertEquals(2, map.size());
+        assertSame(mary, map.get("mary"));
+        assertEquals(50, map.get("bob").getBalance());
+        assertNull(map.get("alice"));
+        assertNull(map.get(42));
+        assertTrue(map.containsKey("bob"));
+        assertFalse(map.containsKey("alice"));
+
+        // Replacing an account keeps the size and leaves the earlier version unchanged
+        Account richerMary = new Account("mary", 500);
+        PersistentAccountMap replaced = map.with("mary", richerMary);
+        assertEquals(2, replaced.size());
+        assertSame(richerMary, replaced.get("mary"));
+        assertSame(mary, map.get("mary"));
+
+        assertEquals(0, empty.size());
+        assertNull(empty.get("mary"));
+        assertFalse(empty.entrySet().iterator().hasNext());
+    }
+
+    @Test
+    public void testCollisions() {
+        // "Aa" and "BB" share a hash code, and so does every string built from those two halves
+        String[] addresses = {"AaAa", "AaBB", "BBAa", "BBBB"};
+        PersistentAccountMap map = PersistentAccountMap.empty();
+        for (int i = 0; i < addresses.length; i++) {
+            map = map.with(addresses[i], new Account(addresses[i], i));
+        }
+        map = map.with("Ab", new Account("Ab", 99));
+
+        assertEquals(5, map.size());
+        for (int i = 0; i < addresses.length; i++) {
+            assertEquals(i, map.get(addresses[i]).getBalance());
+        }
+        assertEquals(99, map.get("Ab").getBalance());
+        assertNull(map.get("AaAb"));
+
+        // Replacing inside a collision node leaves its neighbours and the earlier version untouched
+        PersistentAccountMap replaced = map.with("BBAa", new Account("BBAa", 7));
+        assertEquals(5, replaced.size());
+        assertEquals(7, replaced.get("BBAa").getBalance());
+        assertEquals(2, map.get("BBAa").getBalance());
+        assertEquals(3, replaced.get("BBBB").getBalance());
+        assertEquals(5, countEntries(replaced));
+    }
+
+    @Test
+    public void testStructuralSharing() {
+        Random random = new Random(11);
+        Map<String, Account> expected = new HashMap<>();
+        PersistentAccountMap map = PersistentAccountMap.empty();
+        for (int i = 0; i < 5000; i++) {
+            String address = "account-" + random.nextInt(3000);
+            Account account = new Account(address, i);
+            map = map.with(address, account);
+            expected.put(address, account);
+        }
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected.size(), countEntries(map));
+        for (Map.Entry<String, Account> entry : expected.entrySet()) {
+            assertSame(entry.getValue(), map.get(entry.getKey()));
+        }
+
+        // A new version shares every account it did not touch with the one it came from
+        String touched = expected.keySet().iterator().next();
+        PersistentAccountMap next = map.with(touched, new Account(touched, -1));
+        for (Map.Entry<String, Account> entry : expected.entrySet()) {
+            if (!entry.getKey().equals(touched)) {
+                assertSame(map.get(entry.getKey()), next.get(entry.getKey()));
+            }
+        }
+        assertEquals(-1, next.get(touched).getBalance());
+        assertEquals(expected.get(touched).getBalance(), map.get(touched).getBalance());
+
+        // Putting the account already held returns the same map
+        assertSame(map, map.with(touched, map.get(touched)));
+    }
+
+    private static int countEntries(PersistentAccountMap map) {
+        int count = 0;
+        for (Map.Entry<String, Account> entry : map.entrySet()) {
+            assertSame(entry.getValue(), map.get(entry.getKey()));
+            count++;
+        }
+        return count;
+    }
+}
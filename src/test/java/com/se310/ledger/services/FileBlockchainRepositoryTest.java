@@ -0,0 +1,279 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.BlockSealingPolicy;
+import com.se310.ledger.FsyncPolicy;
+import com.se310.ledger.LedgerException;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.interfaces.BlockchainRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Class for the block log
+ *
+ * Chains are built by a TransactionProcessor over the block log, with and without snapshots, and
+ * compared with the same chain built in memory.
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public class FileBlockchainRepositoryTest {
+
+    private static final int ACCOUNT_COUNT = 6;
+    private static final int BLOCK_COUNT = 23;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testReopen() throws Exception {
+        List<String> expected = describe(build(new BlockchainRepositoryImpl()));
+
+        FileBlockchainRepository repository = open(0, 0);
+        build(repository);
+        assertEquals(expected, describe(repository));
+        repository.close();
+
+        FileBlockchainRepository reopened = open(0, 0);
+        assertEquals(BLOCK_COUNT, reopened.getBlockCount());
+        assertEquals(expected, describe(reopened));
+        reopened.close();
+
+        // Read through a block cache as well
+        FileBlockchainRepository cached = open(0, 4);
+        assertEquals(expected, describe(cached));
+        assertEquals(expected, describe(cached));
+        cached.close();
+    }
+
+    @Test
+    public void testSegmentRollover() throws Exception {
+        List<String> expected = describe(build(new BlockchainRepositoryImpl()));
+
+        FileBlockchainRepository repository = new FileBlockchainRepository(directory, 2048, new FsyncPolicy());
+        build(repository);
+        repository.close();
+        assertTrue(segments().size() > 1);
+
+        FileBlockchainRepository reopened = new FileBlockchainRepository(directory, 2048, new FsyncPolicy());
+        assertEquals(expected, describe(reopened));
+        reopened.close();
+    }
+
+    @Test
+    public void testTornTail() throws Exception {
+        List<String> expected = describe(build(new BlockchainRepositoryImpl()));
+
+        FileBlockchainRepository repository = open(0, 0);
+        build(repository);
+        List<String> lostTransactions = transactionIds(repository.getBlock(BLOCK_COUNT));
+        repository.close();
+
+        // Cut the last record short, as a crash in the middle of a write would
+        Path lastSegment = segments().get(segments().size() - 1);
+        long fullSize = Files.size(lastSegment);
+        try (FileChannel channel = FileChannel.open(lastSegment, StandardOpenOption.WRITE)) {
+            channel.truncate(fullSize - 5);
+        }
+
+        FileBlockchainRepository reopened = open(0, 0);
+        assertEquals(BLOCK_COUNT - 1, reopened.getBlockCount());
+        assertEquals(BLOCK_COUNT - 1, reopened.getLastBlock().getBlockNumber());
+        assertTrue(Files.size(lastSegment) < fullSize - 5);
+        assertEquals(expected.subList(0, BLOCK_COUNT - 1), describe(reopened));
+        for (String transactionId : lostTransactions) {
+            assertFalse(reopened.containsTransaction(transactionId));
+        }
+
+        // The log keeps growing from the last intact block
+        Block lastBlock = reopened.getLastBlock();
+        TransactionProcessor processor = new TransactionProcessor(new TransactionValidatorImpl(), reopened,
+                new MerkleHashGenerator(), "chapman", new Block(lastBlock.getBlockNumber() + 1, lastBlock),
+                new BlockSealingPolicy(4, 0, 0));
+        for (int i = 0; i < 4; i++) {
+            processor.processTransaction(transfer("after-" + i, "master", "a" + i, 100));
+        }
+        assertEquals(BLOCK_COUNT, reopened.getBlockCount());
+        List<String> extended = describe(reopened);
+        reopened.close();
+
+        FileBlockchainRepository again = open(0, 0);
+        assertEquals(extended, describe(again));
+        again.close();
+    }
+
+    @Test
+    public void testSnapshots() throws Exception {
+        List<String> expected = describe(build(new BlockchainRepositoryImpl()));
+
+        FileBlockchainRepository repository = open(5, 0);
+        build(repository);
+        repository.close();
+
+        // Only the two newest snapshots are kept
+        assertEquals(List.of("snapshot-0000000015.snap", "snapshot-0000000020.snap"),
+                snapshots().stream().map(path -> path.getFileName().toString()).toList());
+        assertEquals(20, latestSnapshot().getBlockNumber());
+
+        FileBlockchainRepository reopened = open(5, 0);
+        assertEquals(expected, describe(reopened));
+        reopened.close();
+    }
+
+    @Test
+    public void testCorruptSnapshot() throws Exception {
+        List<String> expected = describe(build(new BlockchainRepositoryImpl()));
+
+        FileBlockchainRepository repository = open(5, 0);
+        build(repository);
+        repository.close();
+
+        // A corrupt newest snapshot falls back to the older one
+        corrupt(snapshots().get(1));
+        assertEquals(15, latestSnapshot().getBlockNumber());
+        FileBlockchainRepository reopened = open(5, 0);
+        assertEquals(expected, describe(reopened));
+        reopened.close();
+
+        // With no intact snapshot the whole log is replayed
+        corrupt(snapshots().get(0));
+        assertNull(latestSnapshot());
+        reopened = open(5, 0);
+        assertEquals(expected, describe(reopened));
+        reopened.close();
+    }
+
+    @Test
+    public void testSnapshotAheadOfLog() throws Exception {
+        List<String> expected = describe(build(new BlockchainRepositoryImpl()));
+
+        FileBlockchainRepository repository = new FileBlockchainRepository(directory, 2048, new FsyncPolicy(), 5, 0);
+        build(repository);
+        repository.close();
+
+        // Lose the segments holding block 20 and later, the newest snapshot is then beyond the log
+        int firstLost = 0;
+        for (Path segment : segments()) {
+            int firstBlock = Integer.parseInt(segment.getFileName().toString().replaceAll("\\D", ""));
+            if (firstBlock <= 20) {
+                firstLost = firstBlock;
+            }
+        }
+        for (Path segment : segments()) {
+            if (Integer.parseInt(segment.getFileName().toString().replaceAll("\\D", "")) >= firstLost) {
+                Files.delete(segment);
+            }
+        }
+        assertTrue(firstLost > 1);
+
+        FileBlockchainRepository reopened = new FileBlockchainRepository(directory, 2048, new FsyncPolicy(), 5, 0);
+        assertEquals(firstLost - 1, reopened.getBlockCount());
+        assertEquals(expected.subList(0, firstLost - 1), describe(reopened));
+        reopened.close();
+    }
+
+    private FileBlockchainRepository open(int snapshotInterval, int cacheBlocks) throws IOException {
+        return new FileBlockchainRepository(directory, 1 << 20, new FsyncPolicy(), snapshotInterval, cacheBlocks);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> stream = Files.list(directory)) {
+            return stream.filter(path -> path.getFileName().toString().startsWith("blocks-")).sorted().toList();
+        }
+    }
+
+    private List<Path> snapshots() throws IOException {
+        try (Stream<Path> stream = Files.list(directory)) {
+            return stream.filter(path -> path.getFileName().toString().endsWith(".snap")).sorted().toList();
+        }
+    }
+
+    private SnapshotStore.Snapshot latestSnapshot() throws IOException {
+        SnapshotStore snapshotStore = new SnapshotStore(directory);
+        try {
+            return snapshotStore.loadLatest();
+        } finally {
+            snapshotStore.close();
+        }
+    }
+
+    /**
+     * Flip a byte in the middle of a file
+     */
+    private static void corrupt(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= (byte) 0xFF;
+        Files.write(path, bytes);
+    }
+
+    /**
+     * Seal BLOCK_COUNT blocks of random transfers, some of them rejected, into the repository
+     */
+    private static BlockchainRepository build(BlockchainRepository repository) throws LedgerException {
+        Block genesisBlock = new Block(1, "");
+        genesisBlock.addAccount("master", new Account("master", Integer.MAX_VALUE));
+        TransactionProcessor processor = new TransactionProcessor(new TransactionValidatorImpl(), repository,
+                new MerkleHashGenerator(), "chapman", genesisBlock, new BlockSealingPolicy(4, 0, 0));
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            processor.createAccount("a" + i);
+        }
+
+        Random random = new Random(9);
+        int i = 0;
+        while (repository.getBlockCount() < BLOCK_COUNT) {
+            String payer = random.nextInt(4) == 0 ? "master" : "a" + random.nextInt(ACCOUNT_COUNT);
+            String receiver = "a" + random.nextInt(ACCOUNT_COUNT);
+            try {
+                processor.processTransaction(transfer("t" + i++, payer, receiver, random.nextInt(2_000)));
+            } catch (LedgerException e) {
+                // Rejected transfers leave no trace in the chain
+            }
+        }
+        return repository;
+    }
+
+    /**
+     * Describe every block: its hashes, transactions, full account state and indexed history
+     */
+    private static List<String> describe(BlockchainRepository repository) {
+        List<String> lines = new ArrayList<>();
+        for (int n = 1; n <= repository.getBlockCount(); n++) {
+            Block block = repository.getBlock(n);
+            TreeMap<String, Integer> balances = new TreeMap<>();
+            block.getAccountBalanceMap().forEach((address, account) -> balances.put(address, account.getBalance()));
+            StringBuilder history = new StringBuilder();
+            for (int i = 0; i < ACCOUNT_COUNT; i++) {
+                history.append(repository.getAccountBalanceAt("a" + i, n)).append(' ');
+            }
+            for (String transactionId : transactionIds(block)) {
+                assertEquals(n, repository.getTransactionLocation(transactionId).getBlockNumber());
+            }
+            lines.add(n + " " + block.getHash() + " " + block.getPreviousHash() + " " + transactionIds(block)
+                    + " " + balances + " " + history);
+        }
+        return lines;
+    }
+
+    private static List<String> transactionIds(Block block) {
+        return block.getTransactionList().stream().map(Transaction::getTransactionId).toList();
+    }
+
+    private static Transaction transfer(String transactionId, String payer, String receiver, int amount) {
+        return new Transaction(transactionId, amount, 10, "note", new Account(payer, 0), new Account(receiver, 0));
+    }
+}
@@ -0,0 +1,99 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.BlockSealingPolicy;
+import com.se310.ledger.LedgerException;
+import com.se310.ledger.Transaction;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Class for the Flight Recorder events emitted while processing and validating transactions
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public class FlightRecorderEventsTest {
+
+    @Test
+    public void testEvents() throws IOException {
+        Block genesisBlock = new Block(1, "");
+        genesisBlock.addAccount("master", new Account("master", Integer.MAX_VALUE));
+        genesisBlock.addAccount("mary", new Account("mary", 0));
+        genesisBlock.addAccount("bob", new Account("bob", 0));
+
+        BlockchainRepositoryImpl repository = new BlockchainRepositoryImpl();
+        MerkleHashGenerator hashGenerator = new MerkleHashGenerator();
+        TransactionProcessor processor = new TransactionProcessor(new TransactionValidatorImpl(), repository,
+                hashGenerator, "chapman", genesisBlock, new BlockSealingPolicy(2, 0, 0));
+        BlockchainValidatorImpl validator = new BlockchainValidatorImpl(repository, hashGenerator, "chapman");
+
+        Path file = Files.createTempFile("ledger", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.se310.ledger.BlockCommit");
+            recording.enable("com.se310.ledger.TransactionRejected");
+            recording.enable("com.se310.ledger.ChainValidation");
+            recording.start();
+
+            // Nothing is committed yet, the validation fails
+            assertThrows(LedgerException.class, validator::validate);
+
+            // The rejected transaction does not count against the block of 2
+            assertDoesNotThrow(() -> processor.processTransaction(transfer("1", 100, "master", "mary")));
+            assertThrows(LedgerException.class, () -> processor.processTransaction(transfer("2", 1000, "mary", "bob")));
+            assertDoesNotThrow(() -> processor.processTransaction(transfer("3", 50, "mary", "bob")));
+            assertDoesNotThrow(validator::validate);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+            List<RecordedEvent> commits = named(events, "com.se310.ledger.BlockCommit");
+            assertEquals(1, commits.size());
+            assertEquals(1, commits.get(0).getInt("blockNumber"));
+            assertEquals(2, commits.get(0).getInt("transactionCount"));
+            assertEquals(3, commits.get(0).getInt("accountCount"));
+            assertFalse(commits.get(0).getDuration("hashTime").isNegative());
+
+            List<RecordedEvent> rejections = named(events, "com.se310.ledger.TransactionRejected");
+            assertEquals(1, rejections.size());
+            assertEquals("2", rejections.get(0).getString("transactionId"));
+            assertEquals("Payer Does Not Have Required Funds", rejections.get(0).getString("reason"));
+
+            List<RecordedEvent> validations = named(events, "com.se310.ledger.ChainValidation");
+            assertEquals(2, validations.size());
+            assertEquals("Incremental", validations.get(0).getString("mode"));
+            assertFalse(validations.get(0).getBoolean("valid"));
+            assertEquals("No Block Has Been Committed", validations.get(0).getString("reason"));
+            assertTrue(validations.get(1).getBoolean("valid"));
+            assertEquals(1, validations.get(1).getInt("blockNumber"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static Transaction transfer(String transactionId, int amount, String payer, String receiver) {
+        return new Transaction(transactionId, amount, 10, "transfer", new Account(payer, 0),
+                new Account(receiver, 0));
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .toList();
+    }
+}
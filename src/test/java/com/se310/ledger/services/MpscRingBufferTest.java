@@ -0,0 +1,109 @@
+package com.se310.ledger.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Class for the lock-free ingestion ring buffer
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public class MpscRingBufferTest {
+
+    @Test
+    public void testCapacity() {
+        assertEquals(8, new MpscRingBuffer<Integer>(5).capacity());
+        assertEquals(8, new MpscRingBuffer<Integer>(8).capacity());
+        assertEquals(1, new MpscRingBuffer<Integer>(1).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new MpscRingBuffer<Integer>(0));
+    }
+
+    @Test
+    public void testFullAndWrapAround() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        int next = 0;
+
+        // Go around the ring several times, filling it completely each time
+        for (int round = 0; round < 5; round++) {
+            assertTrue(buffer.isEmpty());
+            for (int i = 0; i < 4; i++) {
+                assertTrue(buffer.offer(next++));
+            }
+            assertFalse(buffer.offer(-1));
+            assertEquals(4, buffer.size());
+
+            assertEquals(3, buffer.drainTo(drained, 3));
+            for (int i = 0; i < 3; i++) {
+                assertTrue(buffer.offer(next++));
+            }
+            assertFalse(buffer.offer(-1));
+            assertEquals(4, buffer.drainTo(drained, 10));
+        }
+
+        assertEquals(0, buffer.drainTo(drained, 10));
+        assertEquals(next, drained.size());
+        for (int i = 0; i < drained.size(); i++) {
+            assertEquals(i, drained.get(i));
+        }
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+        int producerCount = 4;
+        int perProducer = 10_000;
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(256);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < producerCount; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(producer * perProducer + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            producers.add(thread);
+        }
+
+        // Every element arrives exactly once and each producer's elements keep their order
+        int[] lastSeen = new int[producerCount];
+        Arrays.fill(lastSeen, -1);
+        List<Integer> batch = new ArrayList<>();
+        int received = 0;
+        start.countDown();
+        while (received < producerCount * perProducer) {
+            batch.clear();
+            received += buffer.drainTo(batch, 16);
+            for (int element : batch) {
+                int producer = element / perProducer;
+                int sequence = element % perProducer;
+                assertEquals(lastSeen[producer] + 1, sequence);
+                lastSeen[producer] = sequence;
+            }
+        }
+        for (Thread thread : producers) {
+            thread.join();
+        }
+
+        assertTrue(buffer.isEmpty());
+        for (int last : lastSeen) {
+            assertEquals(perProducer - 1, last);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.BlockSealingPolicy;
+import com.se310.ledger.LedgerException;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.TransactionResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Class for speculative batch execution
+ *
+ * Batches are large enough to run on the executor and reuse a few payers, so most transactions
+ * conflict with an earlier one of their batch and are re-executed.
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public class ParallelTransactionExecutorTest {
+
+    private static final int ACCOUNT_COUNT = 8;
+
+    @Test
+    public void testConflictingPayersMatchSequential() throws LedgerException {
+        List<String> sequential = run(null);
+        List<String> parallel = run(new ParallelTransactionExecutor(4, new TransactionValidatorImpl()));
+
+        assertEquals(sequential, parallel);
+        assertTrue(sequential.stream().anyMatch(line -> line.endsWith(":Payer Does Not Have Required Funds")));
+        assertTrue(sequential.stream().anyMatch(line -> line.endsWith(":accepted")));
+    }
+
+    @Test
+    public void testDuplicateIdsMatchSequential() throws LedgerException {
+        ParallelTransactionExecutor executor = new ParallelTransactionExecutor(4, new TransactionValidatorImpl());
+        TransactionProcessor parallel = processor(executor);
+        TransactionProcessor sequential = processor(null);
+
+        // The same id twice in one batch, and again in the next batch
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(transfer(i % 10 == 0 ? "same" : "first-" + i, "master", "a" + (i % ACCOUNT_COUNT), 100));
+        }
+        assertEquals(outcomes(sequential.processTransactions(batch)), outcomes(parallel.processTransactions(batch)));
+        assertEquals(outcomes(sequential.processTransactions(batch)), outcomes(parallel.processTransactions(batch)));
+        parallel.close();
+    }
+
+    /**
+     * Fund a few accounts, then spend from them with amounts that overdraw some payers part way through a batch
+     * @return transaction outcomes, final balances and block hashes
+     */
+    private static List<String> run(ParallelTransactionExecutor executor) throws LedgerException {
+        BlockchainRepositoryImpl repository = new BlockchainRepositoryImpl();
+        TransactionProcessor processor = processor(repository, executor);
+
+        List<String> lines = new ArrayList<>();
+        List<Transaction> funding = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            funding.add(transfer("fund-" + i, "master", "a" + (i % ACCOUNT_COUNT), 1_000));
+        }
+        lines.addAll(outcomes(processor.processTransactions(funding)));
+
+        Random random = new Random(7);
+        for (int b = 0; b < 20; b++) {
+            List<Transaction> batch = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String payer = "a" + random.nextInt(ACCOUNT_COUNT);
+                String receiver = "a" + random.nextInt(ACCOUNT_COUNT);
+                batch.add(transfer("t" + b + "-" + i, payer, receiver, random.nextInt(1_500)));
+            }
+            lines.addAll(outcomes(processor.processTransactions(batch)));
+        }
+
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            lines.add("a" + i + "=" + processor.getAccount("a" + i).getBalance());
+        }
+        lines.add("master=" + processor.getAccount("master").getBalance());
+        for (int n = 1; n <= repository.getBlockCount(); n++) {
+            lines.add("block " + n + "=" + repository.getBlock(n).getHash());
+        }
+        processor.close();
+        return lines;
+    }
+
+    private static TransactionProcessor processor(ParallelTransactionExecutor executor) throws LedgerException {
+        return processor(new BlockchainRepositoryImpl(), executor);
+    }
+
+    private static TransactionProcessor processor(BlockchainRepositoryImpl repository,
+                                                  ParallelTransactionExecutor executor) throws LedgerException {
+        Block genesisBlock = new Block(1, "");
+        genesisBlock.addAccount("master", new Account("master", Integer.MAX_VALUE));
+        TransactionProcessor processor = new TransactionProcessor(new TransactionValidatorImpl(), repository,
+                new MerkleHashGenerator(), "chapman", genesisBlock, new BlockSealingPolicy(50, 0, 0));
+        processor.setParallelExecutor(executor);
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            processor.createAccount("a" + i);
+        }
+        return processor;
+    }
+
+    private static List<String> outcomes(List<TransactionResult> results) {
+        List<String> lines = new ArrayList<>();
+        for (TransactionResult result : results) {
+            lines.add(result.getTransactionId() + ":" + (result.isAccepted() ? "accepted" : result.getReason()));
+        }
+        return lines;
+    }
+
+    private static Transaction transfer(String transactionId, String payer, String receiver, int amount) {
+        return new Transaction(transactionId, amount, 10, "note", new Account(payer, 0), new Account(receiver, 0));
+    }
+}
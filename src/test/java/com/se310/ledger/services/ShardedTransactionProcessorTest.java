@@ -0,0 +1,240 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.BlockSealingPolicy;
+import com.se310.ledger.LedgerException;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.TransactionResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Class for the sharded transaction processor
+ *
+ * Payers and receivers are drawn from every shard, so most transfers cross shards, and the results
+ * must be exactly those of the sequential processor. Concurrent producers must leave a chain that
+ * validates and conserves supply in every block.
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public class ShardedTransactionProcessorTest {
+
+    private static final int ACCOUNT_COUNT = 40;
+
+    @Test
+    public void testBatchesMatchSequential() throws LedgerException {
+        List<String> sequential = runBatches(0);
+        List<String> sharded = runBatches(4);
+
+        assertEquals(sequential, sharded);
+        assertTrue(sequential.stream().anyMatch(line -> line.endsWith(":Payer Does Not Have Required Funds")));
+    }
+
+    @Test
+    public void testSingleTransactionsMatchSequential() throws LedgerException {
+        assertEquals(runSingle(0), runSingle(8));
+    }
+
+    @Test
+    public void testAccounts() throws LedgerException {
+        AbstractTransactionProcessor processor = processor(new BlockchainRepositoryImpl(), 4);
+        assertEquals(ACCOUNT_COUNT + 1, processor.getAccountCount());
+        assertTrue(processor.containsAccount("a0"));
+        assertFalse(processor.containsAccount("nobody"));
+
+        LedgerException e = assertThrows(LedgerException.class, () -> processor.createAccount("a0"));
+        assertEquals("Account Already Exists", e.getReason());
+    }
+
+    @Test
+    public void testConcurrentTransfers() throws Exception {
+        BlockchainRepositoryImpl repository = new BlockchainRepositoryImpl();
+        AbstractTransactionProcessor processor = processor(repository, 4);
+        List<Transaction> funding = new ArrayList<>();
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            funding.add(new Transaction("fund-" + i, 100_000, 10, "note", new Account("master", 0),
+                    new Account("a" + i, 0)));
+        }
+        processor.processTransactions(funding);
+
+        // Half the producers submit single transfers and half submit batches, all crossing shards and seals
+        int producerCount = 8;
+        int perProducer = 2_000;
+        AtomicInteger accepted = new AtomicInteger(funding.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        for (int p = 0; p < producerCount; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                Random random = new Random(producer);
+                try {
+                    start.await();
+                    List<Transaction> batch = new ArrayList<>();
+                    for (int i = 0; i < perProducer; i++) {
+                        Transaction transaction = randomTransfer(random, "p" + producer + "-" + i);
+                        if (producer % 2 == 0) {
+                            try {
+                                processor.processTransaction(transaction);
+                                accepted.incrementAndGet();
+                            } catch (LedgerException e) {
+                                // Overdrawn payers and unknown receivers are rejected
+                            }
+                        } else {
+                            batch.add(transaction);
+                            if (batch.size() == 25) {
+                                for (TransactionResult result : processor.processTransactions(batch)) {
+                                    if (result.isAccepted()) {
+                                        accepted.incrementAndGet();
+                                    }
+                                }
+                                batch.clear();
+                            }
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            thread.start();
+            producers.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : producers) {
+            thread.join();
+        }
+        assertEquals(List.of(), failures);
+
+        // Every accepted transfer is in exactly one sealed block or the uncommitted block
+        int sealedTransactions = 0;
+        long fees = 0;
+        for (int n = 1; n <= repository.getBlockCount(); n++) {
+            Block block = repository.getBlock(n);
+            assertEquals(10, block.getTransactionList().size());
+            for (Transaction transaction : block.getTransactionList()) {
+                fees += transaction.getFee();
+            }
+            sealedTransactions += block.getTransactionList().size();
+
+            // Fees leave the supply, everything else only moves between accounts
+            long supply = 0;
+            for (Account account : block.getAccountBalanceMap().values()) {
+                assertTrue(account.getBalance() >= 0);
+                supply += account.getBalance();
+            }
+            assertEquals(Integer.MAX_VALUE, supply + fees, "Block " + n);
+        }
+        assertTrue(repository.getBlockCount() > 100);
+        assertEquals(accepted.get(),
+                sealedTransactions + processor.getUncommittedBlock().getTransactionList().size());
+
+        BlockchainValidatorImpl validator = new BlockchainValidatorImpl(repository, new MerkleHashGenerator(),
+                "chapman");
+        validator.validateFull();
+        validator.validateDeep(null);
+        processor.close();
+    }
+
+    /**
+     * Process random cross-shard batches
+     * @param shardCount 0 for the sequential processor
+     * @return transaction outcomes, final balances and block hashes
+     */
+    private static List<String> runBatches(int shardCount) throws LedgerException {
+        BlockchainRepositoryImpl repository = new BlockchainRepositoryImpl();
+        AbstractTransactionProcessor processor = processor(repository, shardCount);
+
+        List<String> lines = new ArrayList<>();
+        Random random = new Random(3);
+        for (int b = 0; b < 20; b++) {
+            List<Transaction> batch = new ArrayList<>();
+            for (int i = 0; i < 150; i++) {
+                batch.add(randomTransfer(random, "t" + b + "-" + i));
+            }
+            lines.addAll(outcomes(processor.processTransactions(batch)));
+        }
+        lines.addAll(state(processor, repository));
+        return lines;
+    }
+
+    /**
+     * Process random cross-shard transfers one at a time
+     * @param shardCount 0 for the sequential processor
+     * @return transaction outcomes, final balances and block hashes
+     */
+    private static List<String> runSingle(int shardCount) throws LedgerException {
+        BlockchainRepositoryImpl repository = new BlockchainRepositoryImpl();
+        AbstractTransactionProcessor processor = processor(repository, shardCount);
+
+        List<String> lines = new ArrayList<>();
+        Random random = new Random(5);
+        for (int i = 0; i < 1_000; i++) {
+            Transaction transaction = randomTransfer(random, "t" + i);
+            try {
+                lines.add(processor.processTransaction(transaction) + ":accepted");
+            } catch (LedgerException e) {
+                lines.add(transaction.getTransactionId() + ":" + e.getReason());
+            }
+        }
+        lines.addAll(state(processor, repository));
+        return lines;
+    }
+
+    private static AbstractTransactionProcessor processor(BlockchainRepositoryImpl repository, int shardCount)
+            throws LedgerException {
+        Block genesisBlock = new Block(1, "");
+        genesisBlock.addAccount("master", new Account("master", Integer.MAX_VALUE));
+        BlockSealingPolicy sealingPolicy = new BlockSealingPolicy(10, 0, 0);
+        AbstractTransactionProcessor processor = shardCount > 0
+                ? new ShardedTransactionProcessor(shardCount, new TransactionValidatorImpl(), repository,
+                        new MerkleHashGenerator(), "chapman", genesisBlock, sealingPolicy)
+                : new TransactionProcessor(new TransactionValidatorImpl(), repository,
+                        new MerkleHashGenerator(), "chapman", genesisBlock, sealingPolicy);
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            processor.createAccount("a" + i);
+        }
+        return processor;
+    }
+
+    /**
+     * Transfer between two random accounts, now and then funded by master or paid to an unknown account
+     */
+    private static Transaction randomTransfer(Random random, String transactionId) {
+        String payer = random.nextInt(10) == 0 ? "master" : "a" + random.nextInt(ACCOUNT_COUNT);
+        String receiver = random.nextInt(50) == 0 ? "nobody" : "a" + random.nextInt(ACCOUNT_COUNT);
+        int amount = payer.equals("master") ? 5_000 : random.nextInt(3_000);
+        return new Transaction(transactionId, amount, 10, "note", new Account(payer, 0), new Account(receiver, 0));
+    }
+
+    private static List<String> outcomes(List<TransactionResult> results) {
+        List<String> lines = new ArrayList<>();
+        for (TransactionResult result : results) {
+            lines.add(result.getTransactionId() + ":" + (result.isAccepted() ? "accepted" : result.getReason()));
+        }
+        return lines;
+    }
+
+    private static List<String> state(AbstractTransactionProcessor processor, BlockchainRepositoryImpl repository) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            lines.add("a" + i + "=" + processor.getAccount("a" + i).getBalance());
+        }
+        lines.add("master=" + processor.getAccount("master").getBalance());
+        lines.add("blocks=" + repository.getBlockCount());
+        for (int n = 1; n <= repository.getBlockCount(); n++) {
+            lines.add("block " + n + "=" + repository.getBlock(n).getHash());
+        }
+        processor.close();
+        return lines;
+    }
+}
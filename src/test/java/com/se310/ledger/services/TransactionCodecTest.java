@@ -0,0 +1,116 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Class for the binary encoding of transactions
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public class TransactionCodecTest {
+
+    private static final int[] VALUES = {0, 1, -1, 63, -64, 64, -65, 127, 128, 16_383, 16_384, -1_000_000,
+            Integer.MAX_VALUE, Integer.MAX_VALUE - 1, Integer.MIN_VALUE, Integer.MIN_VALUE + 1};
+
+    @Test
+    public void testRoundTrip() {
+        for (int amount : VALUES) {
+            for (int fee : VALUES) {
+                Transaction transaction = new Transaction("tx-" + amount + "-" + fee, amount, fee, "note",
+                        new Account("mary", 0), new Account("bob", 0));
+                Transaction decoded = roundTrip(transaction);
+
+                assertEquals(transaction.getTransactionId(), decoded.getTransactionId());
+                assertEquals(amount, decoded.getAmount());
+                assertEquals(fee, decoded.getFee());
+                assertEquals("note", decoded.getNote());
+                assertEquals("mary", decoded.getPayer().getAddress());
+                assertEquals("bob", decoded.getReceiver().getAddress());
+            }
+        }
+    }
+
+    @Test
+    public void testStrings() {
+        // Null and empty note, two, three and four byte characters, and an unpaired surrogate
+        String[] notes = {null, "", "plain", "café", "€ 100", "😀 paid", "broken \ud83d",
+                "x".repeat(1024)};
+        for (String note : notes) {
+            Transaction transaction = new Transaction("über-1", 5, 10, note,
+                    new Account("märy", 0), new Account("中", 0));
+            Transaction decoded = roundTrip(transaction);
+
+            String expected = note == null ? "" : new String(note.getBytes(StandardCharsets.UTF_8),
+                    StandardCharsets.UTF_8);
+            assertEquals(expected, decoded.getNote());
+            assertEquals("über-1", decoded.getTransactionId());
+            assertEquals("märy", decoded.getPayer().getAddress());
+            assertEquals("中", decoded.getReceiver().getAddress());
+        }
+    }
+
+    @Test
+    public void testEncodedLength() {
+        String[] notes = {null, "", "note", "€😀", "broken \ud83d", "x".repeat(200)};
+        for (int amount : VALUES) {
+            for (String note : notes) {
+                Transaction transaction = new Transaction("tx", amount, Integer.MIN_VALUE, note,
+                        new Account("mary", 0), null);
+                TransactionCodec.Buffer buffer = TransactionCodec.threadBuffer();
+                TransactionCodec.encode(transaction, buffer);
+                assertEquals(buffer.length(), TransactionCodec.encodedLength(transaction));
+            }
+        }
+    }
+
+    @Test
+    public void testConsecutiveEncodings() {
+        Transaction first = new Transaction("1", -5, Integer.MAX_VALUE, "first", new Account("mary", 0),
+                new Account("bob", 0));
+        Transaction second = new Transaction("2", Integer.MIN_VALUE, 10, null, new Account("bob", 0),
+                new Account("mary", 0));
+        TransactionCodec.Buffer buffer = TransactionCodec.threadBuffer();
+        TransactionCodec.encode(first, buffer);
+        TransactionCodec.encode(second, buffer);
+        ByteBuffer encoded = ByteBuffer.wrap(Arrays.copyOf(buffer.array(), buffer.length()));
+
+        // readKey leaves the position alone, decode advances past exactly one encoding
+        assertArrayEquals(new String[] {"1", "mary", "bob"}, TransactionCodec.readKey(encoded));
+        assertEquals(-5, TransactionCodec.decode(encoded, address -> new Account(address, 0)).getAmount());
+        assertArrayEquals(new String[] {"2", "bob", "mary"}, TransactionCodec.readKey(encoded));
+        assertEquals(Integer.MIN_VALUE,
+                TransactionCodec.decode(encoded, address -> new Account(address, 0)).getAmount());
+        assertFalse(encoded.hasRemaining());
+    }
+
+    @Test
+    public void testUnsupportedVersion() {
+        byte[] encoded = encode(new Transaction("1", 5, 10, "note", new Account("mary", 0),
+                new Account("bob", 0)));
+        encoded[0] = (byte) (TransactionCodec.FORMAT_VERSION + 1);
+        assertThrows(IllegalStateException.class,
+                () -> TransactionCodec.decode(ByteBuffer.wrap(encoded), address -> new Account(address, 0)));
+    }
+
+    private static byte[] encode(Transaction transaction) {
+        TransactionCodec.Buffer buffer = TransactionCodec.threadBuffer();
+        TransactionCodec.encode(transaction, buffer);
+        return Arrays.copyOf(buffer.array(), buffer.length());
+    }
+
+    private static Transaction roundTrip(Transaction transaction) {
+        ByteBuffer encoded = ByteBuffer.wrap(encode(transaction));
+        Transaction decoded = TransactionCodec.decode(encoded, address -> new Account(address, 0));
+        assertFalse(encoded.hasRemaining());
+        return decoded;
+    }
+}
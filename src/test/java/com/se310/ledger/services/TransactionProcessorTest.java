@@ -0,0 +1,97 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Block;
+import com.se310.ledger.BlockSealingPolicy;
+import com.se310.ledger.LedgerException;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.TransactionResult;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Class for sealing blocks when the block log cannot be written
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public class TransactionProcessorTest {
+
+    @Test
+    public void testBlockLogFailure() throws LedgerException {
+        checkBlockLogFailure(0);
+    }
+
+    @Test
+    public void testShardedBlockLogFailure() throws LedgerException {
+        checkBlockLogFailure(4);
+    }
+
+    private static void checkBlockLogFailure(int shardCount) throws LedgerException {
+        FailingRepository repository = new FailingRepository();
+        AbstractTransactionProcessor processor = processor(repository, shardCount);
+
+        // The transaction filling the block is accepted even though its block cannot be stored
+        repository.failing = true;
+        assertEquals("1", processor.processTransaction(transfer("1")));
+        assertEquals("2", processor.processTransaction(transfer("2")));
+        assertEquals(0, repository.getBlockCount());
+
+        // The block stays full and uncommitted, so the next transaction reports the failure
+        LedgerException e = assertThrows(LedgerException.class, () -> processor.processTransaction(transfer("3")));
+        assertEquals("Block Log Is Not Writable", e.getReason());
+        List<TransactionResult> results = processor.processTransactions(List.of(transfer("4")));
+        assertEquals("Block Log Is Not Writable", results.get(0).getReason());
+        assertEquals(0, repository.getBlockCount());
+
+        // Once the log can be written the same block is sealed and work continues in the next one
+        repository.failing = false;
+        assertEquals("5", processor.processTransaction(transfer("5")));
+        assertEquals(1, repository.getBlockCount());
+        Block block = repository.getBlock(1);
+        assertEquals(List.of("1", "2"), block.getTransactionList().stream().map(Transaction::getTransactionId).toList());
+        assertEquals(200, block.getAccount("mary").getBalance());
+        assertNotNull(block.getHash());
+        assertEquals(300, processor.getAccount("mary").getBalance());
+        assertFalse(repository.containsTransaction("3"));
+        processor.close();
+    }
+
+    private static AbstractTransactionProcessor processor(FailingRepository repository, int shardCount)
+            throws LedgerException {
+        Block genesisBlock = new Block(1, "");
+        genesisBlock.addAccount("master", new Account("master", Integer.MAX_VALUE));
+        BlockSealingPolicy sealingPolicy = new BlockSealingPolicy(2, 0, 0);
+        AbstractTransactionProcessor processor = shardCount > 0
+                ? new ShardedTransactionProcessor(shardCount, new TransactionValidatorImpl(), repository,
+                        new MerkleHashGenerator(), "chapman", genesisBlock, sealingPolicy)
+                : new TransactionProcessor(new TransactionValidatorImpl(), repository,
+                        new MerkleHashGenerator(), "chapman", genesisBlock, sealingPolicy);
+        processor.createAccount("mary");
+        return processor;
+    }
+
+    private static Transaction transfer(String transactionId) {
+        return new Transaction(transactionId, 100, 10, "note", new Account("master", 0), new Account("mary", 0));
+    }
+
+    /**
+     * Repository whose block log fails to take blocks while failing is set
+     */
+    private static class FailingRepository extends BlockchainRepositoryImpl {
+        volatile boolean failing;
+
+        @Override
+        public void addBlock(Block block) {
+            if (failing) {
+                throw new UncheckedIOException(new IOException("No space left on device"));
+            }
+            super.addBlock(block);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.BackpressurePolicy;
+import com.se310.ledger.Block;
+import com.se310.ledger.BlockSealingPolicy;
+import com.se310.ledger.LedgerException;
+import com.se310.ledger.Transaction;
+import com.se310.ledger.TransactionResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Class for the backpressure policies of the transaction sequencer
+ *
+ * The processor holds the sequencer inside its first batch until released, so the queue behind it fills up.
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public class TransactionSequencerTest {
+
+    private static final int QUEUE_CAPACITY = 4;
+
+    @Test
+    public void testFailPolicy() throws Exception {
+        GatedProcessor processor = new GatedProcessor();
+        TransactionSequencer sequencer = new TransactionSequencer(processor, QUEUE_CAPACITY, 1,
+                BackpressurePolicy.FAIL, "fail");
+        try {
+            List<CompletableFuture<String>> futures = fill(sequencer, processor);
+
+            LedgerException e = assertThrows(LedgerException.class, () -> sequencer.submit(transfer("rejected")));
+            assertEquals("Queue Is Full", e.getReason());
+
+            processor.release.countDown();
+            for (CompletableFuture<String> future : futures) {
+                assertNotNull(future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            processor.release.countDown();
+            sequencer.close();
+        }
+    }
+
+    @Test
+    public void testDropPolicy() throws Exception {
+        GatedProcessor processor = new GatedProcessor();
+        TransactionSequencer sequencer = new TransactionSequencer(processor, QUEUE_CAPACITY, 1,
+                BackpressurePolicy.DROP, "drop");
+        try {
+            List<CompletableFuture<String>> futures = fill(sequencer, processor);
+
+            CompletableFuture<String> dropped = sequencer.submit(transfer("dropped"));
+            assertTrue(dropped.isCompletedExceptionally());
+            ExecutionException e = assertThrows(ExecutionException.class, dropped::get);
+            assertEquals("Queue Is Full, Transaction Dropped", ((LedgerException) e.getCause()).getReason());
+
+            processor.release.countDown();
+            for (CompletableFuture<String> future : futures) {
+                assertNotNull(future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            processor.release.countDown();
+            sequencer.close();
+        }
+    }
+
+    @Test
+    public void testBlockPolicy() throws Exception {
+        GatedProcessor processor = new GatedProcessor();
+        TransactionSequencer sequencer = new TransactionSequencer(processor, QUEUE_CAPACITY, 1,
+                BackpressurePolicy.BLOCK, "block");
+        try {
+            List<CompletableFuture<String>> futures = fill(sequencer, processor);
+
+            // The submission waits for a free slot instead of failing
+            CompletableFuture<CompletableFuture<String>> blocked = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return sequencer.submit(transfer("blocked"));
+                } catch (LedgerException e) {
+                    throw new IllegalStateException(e.getReason(), e);
+                }
+            });
+            Thread.sleep(100);
+            assertFalse(blocked.isDone());
+
+            processor.release.countDown();
+            assertEquals("blocked", blocked.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS));
+            for (CompletableFuture<String> future : futures) {
+                assertNotNull(future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            processor.release.countDown();
+            sequencer.close();
+        }
+    }
+
+    /**
+     * Submit one transaction the sequencer takes and holds, then enough to fill the queue
+     */
+    private static List<CompletableFuture<String>> fill(TransactionSequencer sequencer, GatedProcessor processor)
+            throws Exception {
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        futures.add(sequencer.submit(transfer("held")));
+        assertTrue(processor.entered.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < QUEUE_CAPACITY; i++) {
+            futures.add(sequencer.submit(transfer("queued-" + i)));
+        }
+        assertEquals(QUEUE_CAPACITY, sequencer.getQueueSize());
+        return futures;
+    }
+
+    private static Transaction transfer(String transactionId) {
+        return new Transaction(transactionId, 1, 10, "transfer", new Account("master", 0), new Account("mary", 0));
+    }
+
+    /**
+     * Processor holding its first batch until released
+     */
+    private static class GatedProcessor extends TransactionProcessor {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        GatedProcessor() {
+            super(new TransactionValidatorImpl(), new BlockchainRepositoryImpl(), new MerkleHashGenerator(),
+                    "chapman", genesisBlock(), new BlockSealingPolicy());
+        }
+
+        @Override
+        public List<TransactionResult> processTransactions(List<Transaction> transactions) {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.processTransactions(transactions);
+        }
+
+        private static Block genesisBlock() {
+            Block block = new Block(1, "");
+            block.addAccount("master", new Account("master", Integer.MAX_VALUE));
+            block.addAccount("mary", new Account("mary", 0));
+            return block;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.se310.ledger.services;
+
+import com.se310.ledger.Account;
+import com.se310.ledger.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test Class for the write-ahead log of the uncommitted block
+ *
+ * @author  Sergey L. Sundukovskiy
+ * @version 1.0
+ */
+public class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testReplayInOrder() throws IOException {
+        Path path = directory.resolve("transactions.log");
+        WriteAheadLog log = new WriteAheadLog(path, 0);
+        log.replay(new RecordingHandler());
+        log.appendAccount("mary");
+        log.appendTransaction(transfer("1", "master", "mary"));
+        log.appendAccount("bob");
+        long position = log.appendTransactionRecord(
+                WriteAheadLog.encodeTransaction(transfer("2", "mary", "bob")));
+        log.awaitDurable(position);
+        assertEquals(position, log.size());
+        log.close();
+
+        RecordingHandler handler = new RecordingHandler();
+        WriteAheadLog reopened = new WriteAheadLog(path, 0);
+        reopened.replay(handler);
+        reopened.close();
+
+        assertEquals(List.of("account mary", "transaction 1 master->mary", "account bob",
+                "transaction 2 mary->bob"), handler.records);
+        assertEquals("note 2", handler.transactions.get(1).getNote());
+        assertEquals(20, handler.transactions.get(1).getAmount());
+        assertEquals(10, handler.transactions.get(1).getFee());
+    }
+
+    @Test
+    public void testCheckpoint() throws IOException {
+        Path path = directory.resolve("transactions.log");
+        WriteAheadLog log = new WriteAheadLog(path, 500);
+        log.replay(new RecordingHandler());
+        log.appendAccount("mary");
+        log.awaitDurable(log.appendTransaction(transfer("1", "master", "mary")));
+
+        // Positions keep growing across a checkpoint, and waiting on one already covered returns at once
+        long before = log.size();
+        log.checkpoint();
+        assertEquals(0, log.size());
+        log.awaitDurable(before);
+        long after = log.appendAccount("bob");
+        assertTrue(after > before);
+        log.awaitDurable(after);
+        log.close();
+
+        RecordingHandler handler = new RecordingHandler();
+        WriteAheadLog reopened = new WriteAheadLog(path, 0);
+        reopened.replay(handler);
+        reopened.close();
+        assertEquals(List.of("account bob"), handler.records);
+    }
+
+    @Test
+    public void testGroupCommit() throws Exception {
+        Path path = directory.resolve("transactions.log");
+        WriteAheadLog log = new WriteAheadLog(path, 500);
+        log.replay(new RecordingHandler());
+
+        int threadCount = 4;
+        int perThread = 100;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < perThread; i++) {
+                        log.awaitDurable(log.appendTransaction(transfer(thread + "-" + i, "master", "mary")));
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        log.close();
+
+        // Each thread's records are replayed in the order it appended them
+        RecordingHandler handler = new RecordingHandler();
+        WriteAheadLog reopened = new WriteAheadLog(path, 0);
+        reopened.replay(handler);
+        reopened.close();
+        assertEquals(threadCount * perThread, handler.transactions.size());
+        int[] next = new int[threadCount];
+        for (Transaction transaction : handler.transactions) {
+            String[] id = transaction.getTransactionId().split("-");
+            int thread = Integer.parseInt(id[0]);
+            assertEquals(next[thread]++, Integer.parseInt(id[1]));
+        }
+    }
+
+    @Test
+    public void testTornTail() throws IOException {
+        Path path = directory.resolve("transactions.log");
+        WriteAheadLog log = new WriteAheadLog(path, 0);
+        log.replay(new RecordingHandler());
+        log.appendAccount("mary");
+        long intact = log.appendTransaction(transfer("1", "master", "mary"));
+        log.appendTransaction(transfer("2", "master", "mary"));
+        log.close();
+
+        // Cut the last record short, as a crash in the middle of a write would
+        long fullSize = Files.size(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(fullSize - 5);
+        }
+
+        RecordingHandler handler = new RecordingHandler();
+        WriteAheadLog reopened = new WriteAheadLog(path, 0);
+        reopened.replay(handler);
+        assertEquals(List.of("account mary", "transaction 1 master->mary"), handler.records);
+        assertEquals(intact, Files.size(path));
+
+        // The log keeps working after the torn tail is dropped
+        reopened.appendAccount("bob");
+        reopened.close();
+
+        handler = new RecordingHandler();
+        reopened = new WriteAheadLog(path, 0);
+        reopened.replay(handler);
+        reopened.close();
+        assertEquals(List.of("account mary", "transaction 1 master->mary", "account bob"), handler.records);
+    }
+
+    @Test
+    public void testCorruptRecord() throws IOException {
+        Path path = directory.resolve("transactions.log");
+        WriteAheadLog log = new WriteAheadLog(path, 0);
+        log.replay(new RecordingHandler());
+        long intact = log.appendAccount("mary");
+        log.appendAccount("bob");
+        log.close();
+
+        // Flip the last byte of the second record so its checksum no longer matches, then add garbage
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, channel.size() - 1);
+            last.put(0, (byte) (last.get(0) ^ 0xFF)).rewind();
+            channel.write(last, channel.size() - 1);
+            channel.write(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9}), channel.size());
+        }
+
+        RecordingHandler handler = new RecordingHandler();
+        WriteAheadLog reopened = new WriteAheadLog(path, 0);
+        reopened.replay(handler);
+        reopened.close();
+        assertEquals(List.of("account mary"), handler.records);
+        assertEquals(intact, Files.size(path));
+    }
+
+    private static Transaction transfer(String transactionId, String payer, String receiver) {
+        return new Transaction(transactionId, 10 * transactionId.length() + 10, 10, "note " + transactionId,
+                new Account(payer, 0), new Account(receiver, 0));
+    }
+
+    /**
+     * Replay handler recording every record it receives
+     */
+    private static class RecordingHandler implements WriteAheadLog.ReplayHandler {
+        final List<String> records = new ArrayList<>();
+        final List<Transaction> transactions = new ArrayList<>();
+
+        @Override
+        public void account(String address) {
+            records.add("account " + address);
+        }
+
+        @Override
+        public void transaction(Transaction transaction) {
+            records.add("transaction " + transaction.getTransactionId() + " " + transaction.getPayer().getAddress()
+                    + "->" + transaction.getReceiver().getAddress());
+            transactions.add(transaction);
+        }
+    }
+}